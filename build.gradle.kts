@@ -9,8 +9,20 @@ repositories {
     mavenCentral()
 }
 
+// Microbenchmarks don't link against the server, engine types are replaced by local stand-ins
+val jmh: SourceSet by sourceSets.creating
+
 dependencies {
     compileOnly(files("libs/HytaleServer.jar"))
+    implementation(project(":core"))
+
+    // Engine independent brewery logic is benchmarked as it is
+    "jmhImplementation"(project(":core"))
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhImplementation"("com.google.code.findbugs:jsr305:3.0.2")
+    "jmhImplementation"("it.unimi.dsi:fastutil:8.5.15")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks {
@@ -26,5 +38,17 @@ tasks {
         duplicatesStrategy = DuplicatesStrategy.EXCLUDE
 
         from("src/main/resources")
+        // The server only loads the plugin jar, so the core is bundled into it
+        from(project(":core").tasks.named<Jar>("jar").map { zipTree(it.archiveFile) })
+    }
+
+    // Usage: ./gradlew jmh -PjmhArgs="DrunkTierBenchmark -f 1"
+    register<JavaExec>("jmh") {
+        group = "benchmark"
+        description = "Runs brewery microbenchmarks."
+
+        classpath = jmh.runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+        args((findProperty("jmhArgs") as String? ?: "").split(" ").filter { it.isNotBlank() })
     }
 }
\ No newline at end of file
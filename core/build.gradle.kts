@@ -0,0 +1,44 @@
+plugins {
+    id("java")
+}
+
+group = rootProject.group
+version = rootProject.version
+
+repositories {
+    mavenCentral()
+}
+
+// Headless simulation of the core, runs without a server
+val sim: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+dependencies {
+    compileOnly("com.google.code.findbugs:jsr305:3.0.2")
+
+    "simCompileOnly"("com.google.code.findbugs:jsr305:3.0.2")
+}
+
+tasks {
+    // Usage: ./gradlew :core:simulate -PsimArgs="--drinkers 10000 --hours 4"
+    register<JavaExec>("simulate") {
+        group = "benchmark"
+        description = "Runs virtual drinkers through the brewery core."
+
+        classpath = sim.runtimeClasspath
+        mainClass.set("com.thlion_.brewery.sim.DrunkSimulator")
+        args((findProperty("simArgs") as String? ?: "").split(" ").filter { it.isNotBlank() })
+    }
+
+    // Usage: ./gradlew :core:replay -PreplayArgs="path/to/brewery.trace --rate 0.1"
+    register<JavaExec>("replay") {
+        group = "benchmark"
+        description = "Replays a recorded brewery trace through the core."
+
+        classpath = sim.runtimeClasspath
+        mainClass.set("com.thlion_.brewery.sim.TraceReplay")
+        args((findProperty("replayArgs") as String? ?: "").split(" ").filter { it.isNotBlank() })
+    }
+}
@@ -0,0 +1,73 @@
+package com.thlion_.brewery.config;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Drunk tiers compiled into primitive arrays, sorted by ascending threshold.
+ */
+public class DrunkTierTable {
+    public static final int NO_TIER = -1;
+
+    private final float[] thresholds;
+    private final String[] effectIds;
+
+    private DrunkTierTable(@Nonnull float[] thresholds, @Nonnull String[] effectIds) {
+        this.thresholds = thresholds;
+        this.effectIds = effectIds;
+    }
+
+    /**
+     * @param thresholds drunk level required by each tier, in any order
+     * @param effectIds effect asset applied by each tier
+     */
+    public static DrunkTierTable compile(@Nonnull float[] thresholds, @Nonnull String[] effectIds) {
+        Integer[] order = new Integer[thresholds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        // Stable sort keeps declaration order between duplicated thresholds
+        Arrays.sort(order, Comparator.comparingDouble(i -> thresholds[i]));
+
+        float[] sortedThresholds = new float[thresholds.length];
+        String[] sortedEffectIds = new String[thresholds.length];
+
+        int size = 0;
+        for (int i : order) {
+            if (effectIds[i] == null || !(thresholds[i] > 0.0F)) continue;
+
+            // On duplicated thresholds the last declared tier wins
+            if (size > 0 && sortedThresholds[size - 1] == thresholds[i]) {
+                size--;
+            }
+
+            sortedThresholds[size] = thresholds[i];
+            sortedEffectIds[size] = effectIds[i];
+            size++;
+        }
+
+        return new DrunkTierTable(Arrays.copyOf(sortedThresholds, size), Arrays.copyOf(sortedEffectIds, size));
+    }
+
+    /**
+     * @return index of the highest tier reached by the drunk level, or {@link #NO_TIER}
+     */
+    public int getTierIndex(float drunkLevel) {
+        int index = Arrays.binarySearch(this.thresholds, drunkLevel);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    public int size() {
+        return this.thresholds.length;
+    }
+
+    public float getThreshold(int tierIndex) {
+        return this.thresholds[tierIndex];
+    }
+
+    public String getEffectId(int tierIndex) {
+        return this.effectIds[tierIndex];
+    }
+}
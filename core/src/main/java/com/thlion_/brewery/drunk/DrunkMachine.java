@@ -0,0 +1,259 @@
+package com.thlion_.brewery.drunk;
+
+import com.thlion_.brewery.config.DrunkTierTable;
+import com.thlion_.brewery.scheduler.PacketScheduler;
+import com.thlion_.brewery.scheduler.TimerWheel;
+
+import javax.annotation.Nonnull;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Drink, tier transition and camera shake logic of a single world. Decay is linear, so tier transitions
+ * and shake refreshes are scheduled in advance and only the timers that are due get processed.
+ * Shake packets go through a budgeted queue, flushed once per tick.
+ *
+ * <p>Effects, packets and the clock are reached through adapters, {@code C} is the context handed
+ * to them on every call. Not thread-safe, every machine belongs to a single world thread.
+ *
+ * @param <C> context of the adapters
+ * @param <K> key of a player
+ * @param <S> drunk state of a player
+ */
+public class DrunkMachine<C, K, S extends DrunkState> {
+    public static final int TRANSITION = 0;
+    public static final int SHAKE = 1;
+
+    /**
+     * Timer kinds used by the machine, callers may schedule their own kinds after these.
+     */
+    public static final int KINDS = 2;
+
+    public static final double TIMER_RESOLUTION = 0.05D;
+
+    private static final double CAMERA_SHAKE_DURATION = 2.0D;
+    private static final double CAMERA_SHAKE_REFRESH = CAMERA_SHAKE_DURATION - 0.5D;
+
+    // Fire transitions slightly after the boundary, so the tier has surely changed
+    private static final double TRANSITION_EPSILON = 0.05D;
+
+    private final DoubleSupplier clock;
+    private final Effects<C, K> effects;
+    private final Shakes<C, K, S> shakes;
+
+    private final TimerWheel<K> timers;
+    private final PacketScheduler<K, PendingShake<S>> shakeQueue = new PacketScheduler<>();
+
+    /**
+     * @param kinds amount of timer kinds, at least {@link #KINDS}
+     * @param clock current clock time in seconds
+     */
+    public DrunkMachine(int kinds, @Nonnull DoubleSupplier clock, @Nonnull Effects<C, K> effects, @Nonnull Shakes<C, K, S> shakes) {
+        if (kinds < KINDS) {
+            throw new IllegalArgumentException("Drunk machine needs at least " + KINDS + " timer kinds");
+        }
+
+        this.clock = clock;
+        this.effects = effects;
+        this.shakes = shakes;
+        this.timers = new TimerWheel<>(TIMER_RESOLUTION, kinds, clock.getAsDouble());
+    }
+
+    @Nonnull
+    public TimerWheel<K> getTimers() {
+        return this.timers;
+    }
+
+    public double now() {
+        return this.clock.getAsDouble();
+    }
+
+    /**
+     * Fires every timer due up to now, see {@link TimerWheel#advance(double, TimerWheel.Listener)}.
+     * Collect the due kinds per key and handle them after advancing, so a key with several due timers
+     * is updated once.
+     */
+    public void advance(@Nonnull TimerWheel.Listener<K> listener) {
+        this.timers.advance(this.now(), listener);
+    }
+
+    /**
+     * Syncs drunk effects and timers with the current drunk level.
+     *
+     * @param drink whether the level was just raised by a drink, which changes the shake at once
+     * @return current drunk level
+     */
+    public float update(@Nonnull C context, @Nonnull K key, @Nonnull S state, @Nonnull DrunkRules rules, boolean drink) {
+        double now = this.now();
+        float drunkLevel = state.getLevel(now);
+
+        int tierIndex = rules.tiers().getTierIndex(drunkLevel);
+        int appliedTier = state.getAppliedTier();
+
+        // Tier is unchanged, effects are already up to date
+        if (tierIndex != appliedTier) {
+            if (tierIndex == DrunkTierTable.NO_TIER) {
+                // If no drunk, then clear effects
+                this.effects.clear(context, key);
+            } else if (appliedTier != DrunkState.UNKNOWN_TIER || !this.effects.has(context, key, tierIndex)) {
+                this.effects.clear(context, key);
+                this.effects.add(context, key, tierIndex);
+            }
+
+            state.setAppliedTier(tierIndex);
+        }
+
+        this.scheduleTimers(key, state, rules, tierIndex, drunkLevel, now);
+
+        if (drink) {
+            this.queueShake(key, state, rules, drunkLevel, false, now);
+        }
+
+        return drunkLevel;
+    }
+
+    /**
+     * Moves the state over to new rules: the level is kept and decays at the new rate from now on,
+     * tier effects are checked again and timers are rescheduled.
+     *
+     * @return current drunk level
+     */
+    public float reload(@Nonnull C context, @Nonnull K key, @Nonnull S state, @Nonnull DrunkRules rules) {
+        state.reanchor(this.now(), rules.soberUpRate());
+
+        // Tier indices of the old rules mean nothing in the new ones
+        state.invalidateAppliedTier();
+        return this.update(context, key, state, rules, false);
+    }
+
+    /**
+     * Refreshes the shake when the current one is about to expire.
+     */
+    public void refreshShake(@Nonnull K key, @Nonnull S state, @Nonnull DrunkRules rules) {
+        double now = this.now();
+
+        float drunkLevel = state.getLevel(now);
+        if (drunkLevel > 0.0F) {
+            this.queueShake(key, state, rules, drunkLevel, true, now);
+        }
+    }
+
+    /**
+     * Queues the packet which stops the shake, ahead of refreshes.
+     */
+    public void removeShake(@Nonnull K key, @Nonnull S state) {
+        this.shakeQueue.submit(key, new PendingShake<>(state, 0), true);
+    }
+
+    /**
+     * Stops timers and camera shake, drunk level is frozen until {@link #resume(Object, DrunkState)}.
+     */
+    public void suspend(@Nonnull K key, @Nonnull S state) {
+        state.pause(this.now());
+        this.timers.cancel(key, TRANSITION);
+        this.timers.cancel(key, SHAKE);
+        this.removeShake(key, state);
+    }
+
+    /**
+     * Lets drunk level decay again and re-applies drunk effects on the next tick, as if they were never applied.
+     */
+    public void resume(@Nonnull K key, @Nonnull S state) {
+        state.resume(this.now());
+        state.invalidateAppliedTier();
+        this.timers.schedule(key, TRANSITION, this.now());
+    }
+
+    /**
+     * Forgets the player, dropping its timers and queued shake packets.
+     */
+    public void remove(@Nonnull K key) {
+        this.timers.cancelAll(key);
+        this.shakeQueue.cancel(key);
+    }
+
+    /**
+     * Sends queued shake packets within the budget.
+     *
+     * @return amount of queued packets handled
+     */
+    public int flushShakes(@Nonnull C context, @Nonnull DrunkRules rules, int budget) {
+        if (this.shakeQueue.size() == 0) return 0;
+
+        double now = this.now();
+
+        return this.shakeQueue.flush(budget, (key, shake) -> {
+            // Player sobered up while the refresh was waiting
+            if (shake.bucket() > 0 && shake.state().getLevel(now) <= 0.0F) return;
+
+            if (!this.shakes.send(context, key, shake.state(), shake.bucket())) return;
+
+            shake.state().setShakeBucket(shake.bucket());
+
+            // Cadence follows the actual send, so players deferred by the budget stay staggered
+            if (shake.bucket() > 0) {
+                this.timers.schedule(key, SHAKE, now + CAMERA_SHAKE_REFRESH);
+            }
+        });
+    }
+
+    public int getQueuedShakes() {
+        return this.shakeQueue.size();
+    }
+
+    private void scheduleTimers(@Nonnull K key, @Nonnull S state, @Nonnull DrunkRules rules, int tierIndex, float drunkLevel, double now) {
+        if (drunkLevel <= 0.0F) {
+            this.timers.cancel(key, TRANSITION);
+            this.timers.cancel(key, SHAKE);
+            return;
+        }
+
+        // Below the first tier the only transition left is full sobriety
+        float boundary = tierIndex == DrunkTierTable.NO_TIER ? 0.0F : rules.tiers().getThreshold(tierIndex);
+        this.timers.schedule(key, TRANSITION, state.getTimeAtLevel(boundary) + TRANSITION_EPSILON);
+
+        if (!this.timers.isScheduled(key, SHAKE)) {
+            this.timers.schedule(key, SHAKE, now);
+        }
+    }
+
+    /**
+     * Queues a shake packet only if intensity bucket has changed, or if {@code refresh} is set.
+     * Intensity changes are sent before refreshes.
+     */
+    private void queueShake(@Nonnull K key, @Nonnull S state, @Nonnull DrunkRules rules, float drunkLevel, boolean refresh, double now) {
+        int bucket = rules.getShakeBucket(drunkLevel);
+        boolean changed = bucket != state.getShakeBucket();
+        if (!refresh && !changed) return;
+
+        this.shakeQueue.submit(key, new PendingShake<>(state, bucket), changed);
+
+        // Fallback refresh, moved to the actual send time once the packet goes out
+        this.timers.schedule(key, SHAKE, now + CAMERA_SHAKE_REFRESH);
+    }
+
+    /**
+     * Applies drunk tier effects, tiers are indices into {@link DrunkRules#tiers()}.
+     */
+    public interface Effects<C, K> {
+        boolean has(@Nonnull C context, @Nonnull K key, int tierIndex);
+
+        /**
+         * Removes every drunk effect, whatever tier applied it.
+         */
+        void clear(@Nonnull C context, @Nonnull K key);
+
+        void add(@Nonnull C context, @Nonnull K key, int tierIndex);
+    }
+
+    @FunctionalInterface
+    public interface Shakes<C, K, S> {
+        /**
+         * @param bucket shake intensity bucket, {@code 0} stops the shake
+         * @return whether the packet was sent
+         */
+        boolean send(@Nonnull C context, @Nonnull K key, @Nonnull S state, int bucket);
+    }
+
+    private record PendingShake<S>(@Nonnull S state, int bucket) {
+    }
+}
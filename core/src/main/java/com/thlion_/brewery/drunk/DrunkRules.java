@@ -0,0 +1,23 @@
+package com.thlion_.brewery.drunk;
+
+import com.thlion_.brewery.config.DrunkTierTable;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Config values the {@link DrunkMachine} works with, taken once per call.
+ *
+ * @param soberUpRate drunk level lost per second
+ * @param shakeBuckets amount of shake intensity buckets, {@code 0} if no shake can be sent
+ */
+public record DrunkRules(@Nonnull DrunkTierTable tiers, float soberUpRate, int shakeBuckets) {
+    /**
+     * @return shake intensity bucket of the drunk level, {@code 0} stops the shake
+     */
+    public int getShakeBucket(float drunkLevel) {
+        if (this.shakeBuckets <= 0 || drunkLevel <= 0.0F) return 0;
+
+        int bucket = (int) Math.ceil(drunkLevel / DrunkState.MAX_DRUNK_LEVEL * this.shakeBuckets);
+        return Math.max(Math.min(bucket, this.shakeBuckets), 1);
+    }
+}
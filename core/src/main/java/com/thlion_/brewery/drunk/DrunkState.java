@@ -0,0 +1,181 @@
+package com.thlion_.brewery.drunk;
+
+import com.thlion_.brewery.utils.DrunkDecay;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Drunk level of a single player, stored at the moment of its last update. Current level is computed
+ * on read from the linear sober up rate, so nothing has to be written while the player sobers up.
+ * The rate is anchored together with the level, so a config reload can't change levels retroactively.
+ *
+ * <p>Stored level is kept in fixed point, so a save and load round trip never changes it.
+ */
+public class DrunkState {
+    public static final float MAX_DRUNK_LEVEL = 100.0F;
+
+    /**
+     * Fixed point units per drunk level, {@link #MAX_DRUNK_LEVEL} still fits a short.
+     */
+    public static final int LEVEL_SCALE = 100;
+
+    /**
+     * Tier is not known yet, effects must be checked against the effect controller.
+     */
+    public static final int UNKNOWN_TIER = -2;
+
+    /**
+     * No shake packet was sent yet.
+     */
+    public static final int NO_BUCKET = -1;
+
+    // Level at the last update, in fixed point units
+    private short storedLevel;
+    private double anchorTime;
+    private float soberUpRate;
+    // Level is frozen while paused, the rate is kept for the resume
+    private boolean paused;
+    private int appliedTier;
+    private int shakeBucket;
+
+    /**
+     * @param soberUpRate drunk level lost per second
+     */
+    public DrunkState(double now, float soberUpRate) {
+        this.storedLevel = 0;
+        this.anchorTime = now;
+        this.soberUpRate = soberUpRate;
+        this.appliedTier = UNKNOWN_TIER;
+        this.shakeBucket = NO_BUCKET;
+    }
+
+    /**
+     * Copies the level only, applied state is reset since the copy is not applied anywhere yet.
+     */
+    public DrunkState(@Nonnull DrunkState other) {
+        this.storedLevel = other.storedLevel;
+        this.anchorTime = other.anchorTime;
+        this.soberUpRate = other.soberUpRate;
+        this.paused = other.paused;
+        this.appliedTier = UNKNOWN_TIER;
+        this.shakeBucket = NO_BUCKET;
+    }
+
+    public int getAppliedTier() {
+        return this.appliedTier;
+    }
+
+    public void setAppliedTier(int tierIndex) {
+        this.appliedTier = tierIndex;
+    }
+
+    public void invalidateAppliedTier() {
+        this.appliedTier = UNKNOWN_TIER;
+    }
+
+    public int getShakeBucket() {
+        return this.shakeBucket;
+    }
+
+    public void setShakeBucket(int bucket) {
+        this.shakeBucket = bucket;
+    }
+
+    public float getLevel(double now) {
+        return DrunkDecay.getLevelAt(fromFixed(this.storedLevel), this.anchorTime, this.getDecayRate(), now);
+    }
+
+    /**
+     * @return clock time at which the decaying drunk level drops to {@code target}, infinite if it never does
+     */
+    public double getTimeAtLevel(float target) {
+        return DrunkDecay.getTimeAtLevel(fromFixed(this.storedLevel), this.anchorTime, this.getDecayRate(), target);
+    }
+
+    /**
+     * @return drunk level lost per second since the last update
+     */
+    public float getSoberUpRate() {
+        return this.soberUpRate;
+    }
+
+    /**
+     * @return drunk level lost per second right now, {@code 0} while paused
+     */
+    public float getDecayRate() {
+        return this.paused ? 0.0F : this.soberUpRate;
+    }
+
+    /**
+     * @param soberUpRate drunk level lost per second from now on
+     */
+    public void setLevel(float value, double now, float soberUpRate) {
+        this.storedLevel = toFixed(value);
+        this.anchorTime = now;
+        this.soberUpRate = soberUpRate;
+    }
+
+    /**
+     * Adds to the current level, negative values sober up.
+     *
+     * @param soberUpRate drunk level lost per second from now on
+     */
+    public void increase(float value, double now, float soberUpRate) {
+        this.setLevel(this.getLevel(now) + value, now, soberUpRate);
+    }
+
+    /**
+     * Keeps the current level, which decays at the new rate from now on.
+     */
+    public void reanchor(double now, float soberUpRate) {
+        this.setLevel(this.getLevel(now), now, soberUpRate);
+    }
+
+    public boolean isPaused() {
+        return this.paused;
+    }
+
+    /**
+     * Freezes the current level until {@link #resume(double)}, drinks still raise it meanwhile.
+     */
+    public void pause(double now) {
+        if (this.paused) return;
+
+        this.reanchor(now, this.soberUpRate);
+        this.paused = true;
+    }
+
+    /**
+     * Level decays again from now on, as if no time had passed while paused.
+     */
+    public void resume(double now) {
+        if (!this.paused) return;
+
+        this.anchorTime = now;
+        this.paused = false;
+    }
+
+    protected short getStoredLevel() {
+        return this.storedLevel;
+    }
+
+    protected void setStoredLevel(short storedLevel) {
+        this.storedLevel = (short) Math.max(Math.min(storedLevel, (int) (MAX_DRUNK_LEVEL * LEVEL_SCALE)), 0);
+    }
+
+    protected double getAnchorTime() {
+        return this.anchorTime;
+    }
+
+    protected void setAnchorTime(double anchorTime) {
+        this.anchorTime = anchorTime;
+    }
+
+    protected static short toFixed(float level) {
+        return (short) Math.round(Math.max(Math.min(level, MAX_DRUNK_LEVEL), 0.0F) * LEVEL_SCALE);
+    }
+
+    private static float fromFixed(short level) {
+        return (float) level / LEVEL_SCALE;
+    }
+}
@@ -0,0 +1,178 @@
+package com.thlion_.brewery.leaderboard;
+
+import com.thlion_.brewery.utils.DrunkDecay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Drunk players ordered by the time they get sober. Players sobering up at the same rate are kept
+ * in one group, where this order equals the order by current drunk level and doesn't change as time passes.
+ * Groups are merged by current level on read, there are only a few of them: the configured rate,
+ * paused players at rate {@code 0} and, right after a reload, the previous rate.
+ * Entries only move when a level is re-anchored, for example after a drink.
+ *
+ * <p>Not thread-safe, every leaderboard belongs to a single world thread.
+ */
+public class DrunkLeaderboard<K> {
+    private static final Comparator<Entry<?>> ORDER = Comparator
+        .<Entry<?>>comparingDouble(entry -> -entry.rank)
+        .thenComparingLong(entry -> entry.sequence);
+
+    private final Map<Float, TreeSet<Entry<K>>> groups = new HashMap<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    private long sequence;
+
+    /**
+     * @param drunkLevel drunk level at {@code time}
+     * @param time clock time in seconds
+     * @param soberUpRate drunk level lost per second from {@code time} on, {@code 0} while paused
+     */
+    public void update(@Nonnull K key, @Nonnull String name, float drunkLevel, double time, float soberUpRate) {
+        this.remove(key);
+
+        if (drunkLevel <= 0.0F) return;
+
+        Entry<K> entry = new Entry<>(key, name, drunkLevel, time, Math.max(soberUpRate, 0.0F), this.sequence++);
+
+        this.entries.put(key, entry);
+        this.groups.computeIfAbsent(entry.soberUpRate, rate -> new TreeSet<>(ORDER)).add(entry);
+    }
+
+    public void remove(@Nonnull K key) {
+        Entry<K> entry = this.entries.remove(key);
+        if (entry == null) return;
+
+        TreeSet<Entry<K>> group = this.groups.get(entry.soberUpRate);
+        group.remove(entry);
+
+        if (group.isEmpty()) {
+            this.groups.remove(entry.soberUpRate);
+        }
+    }
+
+    public boolean contains(@Nonnull K key) {
+        return this.entries.containsKey(key);
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns at most {@code count} players that are still drunk, drunkest first.
+     * Entries rejected by {@code isValid} are dropped from the leaderboard.
+     */
+    @Nonnull
+    public List<Standing<K>> top(int count, double now, @Nullable Predicate<K> isValid) {
+        List<Standing<K>> standings = new ArrayList<>(Math.min(count, this.entries.size()));
+        List<K> stale = new ArrayList<>();
+
+        List<Cursor<K>> cursors = new ArrayList<>(this.groups.size());
+        for (TreeSet<Entry<K>> group : this.groups.values()) {
+            Cursor<K> cursor = new Cursor<>(group.iterator());
+            if (cursor.next(now, isValid, stale)) {
+                cursors.add(cursor);
+            }
+        }
+
+        while (standings.size() < count && !cursors.isEmpty()) {
+            Cursor<K> drunkest = cursors.get(0);
+            for (Cursor<K> cursor : cursors) {
+                if (cursor.compareTo(drunkest) < 0) drunkest = cursor;
+            }
+
+            standings.add(new Standing<>(drunkest.entry.key, drunkest.entry.name, drunkest.drunkLevel));
+
+            if (!drunkest.next(now, isValid, stale)) {
+                cursors.remove(drunkest);
+            }
+        }
+
+        stale.forEach(this::remove);
+
+        return standings;
+    }
+
+    public record Standing<K>(@Nonnull K key, @Nonnull String name, float drunkLevel) {
+    }
+
+    private static class Entry<K> {
+        private final K key;
+        private final String name;
+        private final float drunkLevel;
+        private final double time;
+        private final float soberUpRate;
+        private final long sequence;
+        private final double rank;
+
+        private Entry(K key, String name, float drunkLevel, double time, float soberUpRate, long sequence) {
+            this.key = key;
+            this.name = name;
+            this.drunkLevel = drunkLevel;
+            this.time = time;
+            this.soberUpRate = soberUpRate;
+            this.sequence = sequence;
+
+            // Without sobering up the level itself is stable
+            this.rank = soberUpRate <= 0.0F ? drunkLevel : DrunkDecay.getTimeAtLevel(drunkLevel, time, soberUpRate, 0.0F);
+        }
+
+        private float getDrunkLevel(double now) {
+            return DrunkDecay.getLevelAt(this.drunkLevel, this.time, this.soberUpRate, now);
+        }
+    }
+
+    /**
+     * Walks one group drunkest first, skipping stale entries.
+     */
+    private static class Cursor<K> {
+        private final Iterator<Entry<K>> iterator;
+
+        private Entry<K> entry;
+        private float drunkLevel;
+
+        private Cursor(Iterator<Entry<K>> iterator) {
+            this.iterator = iterator;
+        }
+
+        /**
+         * @return whether a drunk entry is left in the group
+         */
+        private boolean next(double now, @Nullable Predicate<K> isValid, @Nonnull List<K> stale) {
+            while (this.iterator.hasNext()) {
+                Entry<K> entry = this.iterator.next();
+
+                // Checked first, so a stale entry can't hide behind the sober ones
+                if (isValid != null && !isValid.test(entry.key)) {
+                    stale.add(entry.key);
+                    continue;
+                }
+
+                // Order is by sober time, everyone after this one is sober as well
+                float drunkLevel = entry.getDrunkLevel(now);
+                if (drunkLevel <= 0.0F) return false;
+
+                this.entry = entry;
+                this.drunkLevel = drunkLevel;
+                return true;
+            }
+
+            return false;
+        }
+
+        private int compareTo(@Nonnull Cursor<K> other) {
+            int order = Float.compare(other.drunkLevel, this.drunkLevel);
+            return order != 0 ? order : Long.compare(this.entry.sequence, other.entry.sequence);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.thlion_.brewery.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power of two nanosecond buckets.
+ * Recording only touches striped adders, so concurrent world threads don't contend.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+
+        this.buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+        this.count.increment();
+        this.total.add(value);
+        this.max.accumulate(value);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public long getMeanNanos() {
+        long count = this.count.sum();
+        return count == 0L ? 0L : this.total.sum() / count;
+    }
+
+    public long getMaxNanos() {
+        return this.max.get();
+    }
+
+    /**
+     * @return upper bound of the bucket holding the given percentile, in nanoseconds
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0L;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets[i].sum();
+            count += counts[i];
+        }
+
+        if (count == 0L) return 0L;
+
+        long rank = (long) Math.ceil(count * percentile);
+        long seen = 0L;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == 0 ? 0L : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1L);
+            }
+        }
+
+        return this.max.get();
+    }
+
+    public void reset() {
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+
+        this.count.reset();
+        this.total.reset();
+        this.max.reset();
+    }
+}
@@ -0,0 +1,14 @@
+package com.thlion_.brewery.refill;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Resolves asset keys to the numeric ids used in chunk sections.
+ */
+@FunctionalInterface
+public interface AssetIndex {
+    /**
+     * @return id of the asset, negative if it is not loaded
+     */
+    int getIndex(@Nonnull String key);
+}
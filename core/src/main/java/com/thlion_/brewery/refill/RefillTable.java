@@ -0,0 +1,100 @@
+package com.thlion_.brewery.refill;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Refill targets indexed directly by block and fluid id, immutable once built.
+ * A block target wins over the fluid target of the same position.
+ */
+public class RefillTable<T> {
+    private final int generation;
+    private final Object[] byBlock;
+    private final Object[] byFluid;
+
+    private RefillTable(int generation, @Nonnull Object[] byBlock, @Nonnull Object[] byFluid) {
+        this.generation = generation;
+        this.byBlock = byBlock;
+        this.byFluid = byFluid;
+    }
+
+    @Nonnull
+    public static <T> Builder<T> builder(@Nonnull AssetIndex blocks, @Nonnull AssetIndex fluids) {
+        return new Builder<>(blocks, fluids);
+    }
+
+    /**
+     * @return asset generation the ids were resolved against
+     */
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public T getBlockTarget(int blockId) {
+        return blockId >= 0 && blockId < this.byBlock.length ? (T) this.byBlock[blockId] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public T getFluidTarget(int fluidId) {
+        return fluidId >= 0 && fluidId < this.byFluid.length ? (T) this.byFluid[fluidId] : null;
+    }
+
+    /**
+     * @return target of the block, or of the fluid if the block has none
+     */
+    @Nullable
+    public T resolve(int blockId, int fluidId) {
+        T target = this.getBlockTarget(blockId);
+        return target != null ? target : this.getFluidTarget(fluidId);
+    }
+
+    public static class Builder<T> {
+        private final AssetIndex blocks;
+        private final AssetIndex fluids;
+
+        private Object[] byBlock = new Object[0];
+        private Object[] byFluid = new Object[0];
+
+        private Builder(@Nonnull AssetIndex blocks, @Nonnull AssetIndex fluids) {
+            this.blocks = blocks;
+            this.fluids = fluids;
+        }
+
+        /**
+         * Later targets replace earlier ones on the same id, unknown keys are skipped.
+         */
+        @Nonnull
+        public Builder<T> add(@Nonnull String[] blockKeys, @Nonnull String[] fluidKeys, @Nonnull T target) {
+            for (String key : blockKeys) {
+                this.byBlock = put(this.byBlock, this.blocks.getIndex(key), target);
+            }
+
+            for (String key : fluidKeys) {
+                this.byFluid = put(this.byFluid, this.fluids.getIndex(key), target);
+            }
+
+            return this;
+        }
+
+        @Nonnull
+        public RefillTable<T> build(int generation) {
+            return new RefillTable<>(generation, this.byBlock.clone(), this.byFluid.clone());
+        }
+
+        @Nonnull
+        private static Object[] put(@Nonnull Object[] dense, int id, @Nonnull Object target) {
+            if (id < 0) return dense;
+
+            if (id >= dense.length) {
+                dense = Arrays.copyOf(dense, id + 1);
+            }
+
+            dense[id] = target;
+            return dense;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.thlion_.brewery.registry;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+
+/**
+ * Classifies items by their id and raw asset tags, independent of the asset store.
+ */
+public class ItemClassifier {
+    public static final byte CLASS_OTHER = 0;
+    public static final byte CLASS_TELEPORTER = 1;
+    public static final byte CLASS_BREWERY_DRINK = 2;
+
+    public static final String TYPE_TAG = "Type";
+    public static final String ALCOHOL_TAG = "Alcohol";
+
+    private static final String BREWERY_TYPE_PREFIX = "Brewery_";
+    private static final String BREWERY_DRINK_TYPE = "Brewery_Drink";
+
+    // Teleporter-related block identifiers to whitelist
+    private static final String[] TELEPORTER_TAGS = {
+        "teleporter",
+        "portal",
+        "warp",
+        "fasttravel"
+    };
+
+    // Hytale's built-in teleporter block names
+    private static final String[] TELEPORTER_BLOCKS = {
+        "hytale:teleporter",
+        "hytale:portal_frame",
+        "hytale:warp_stone"
+    };
+
+    public static byte classify(@Nonnull String itemId, @Nonnull Map<String, String[]> tags) {
+        if (isTeleporterItem(itemId)) {
+            return CLASS_TELEPORTER;
+        }
+
+        String[] types = tags.get(TYPE_TAG);
+        if (types != null && hasBreweryType(types) && contains(types, BREWERY_DRINK_TYPE)) {
+            return CLASS_BREWERY_DRINK;
+        }
+
+        return CLASS_OTHER;
+    }
+
+    /**
+     * @return alcohol declared by the {@code Alcohol} tag, {@code 0} if missing
+     * @throws NumberFormatException if the tag is not a number
+     */
+    public static float getDeclaredAlcohol(@Nonnull Map<String, String[]> tags) {
+        String[] values = tags.get(ALCOHOL_TAG);
+        if (values == null || values.length == 0 || values[0] == null) return 0.0F;
+
+        return Math.max(Float.parseFloat(values[0]), 0.0F);
+    }
+
+    /**
+     * Check if an item is a teleporter-related block
+     */
+    public static boolean isTeleporterItem(@Nonnull String itemId) {
+        // Check exact block IDs
+        for (String teleporterBlock : TELEPORTER_BLOCKS) {
+            if (itemId.equals(teleporterBlock)) {
+                return true;
+            }
+        }
+
+        // Check if item ID contains teleporter keywords
+        String lowerItemId = itemId.toLowerCase();
+        for (String tag : TELEPORTER_TAGS) {
+            if (lowerItemId.contains(tag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasBreweryType(@Nonnull String[] types) {
+        for (String type : types) {
+            if (type != null && type.startsWith(BREWERY_TYPE_PREFIX)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean contains(@Nonnull String[] values, @Nonnull String value) {
+        for (String candidate : values) {
+            if (value.equals(candidate)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,79 @@
+package com.thlion_.brewery.scheduler;
+
+import javax.annotation.Nonnull;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Budgeted send queue for cosmetic packets, holds at most one pending packet per key.
+ * Keys are served round-robin in the order they were queued, urgent packets before refreshes.
+ * A newer packet replaces the pending one of the same key without losing its place.
+ *
+ * <p>Not thread-safe, every scheduler belongs to a single world thread.
+ */
+public class PacketScheduler<K, P> {
+    // Share of the budget kept for refreshes while urgent packets are waiting, so they can't starve
+    private static final int REFRESH_SHARE_DIVISOR = 4;
+
+    private final LinkedHashMap<K, P> urgent = new LinkedHashMap<>();
+    private final LinkedHashMap<K, P> refresh = new LinkedHashMap<>();
+
+    /**
+     * @param urgent whether the packet changes what the player sees, rather than refreshing it
+     */
+    public void submit(@Nonnull K key, @Nonnull P packet, boolean urgent) {
+        if (urgent) {
+            this.refresh.remove(key);
+            this.urgent.put(key, packet);
+        } else if (this.urgent.containsKey(key)) {
+            // Pending change is sent anyway, a refresh is only needed after it
+            this.urgent.put(key, packet);
+        } else {
+            this.refresh.put(key, packet);
+        }
+    }
+
+    public void cancel(@Nonnull K key) {
+        this.urgent.remove(key);
+        this.refresh.remove(key);
+    }
+
+    public int size() {
+        return this.urgent.size() + this.refresh.size();
+    }
+
+    /**
+     * Sends at most {@code budget} packets, the rest stays queued for the next flush.
+     * Sender must not submit to this scheduler.
+     *
+     * @return amount of sent packets
+     */
+    public int flush(int budget, @Nonnull BiConsumer<K, P> sender) {
+        if (budget <= 0) return 0;
+
+        int refreshBudget = this.refresh.isEmpty() ? 0 : Math.max(budget / REFRESH_SHARE_DIVISOR, 1);
+        int sent = drain(this.urgent, Math.max(budget - refreshBudget, 1), sender);
+
+        // Refreshes get the reserved share and anything urgent packets left unused
+        sent += drain(this.refresh, budget - sent, sender);
+
+        return sent;
+    }
+
+    private static <K, P> int drain(@Nonnull LinkedHashMap<K, P> queue, int budget, @Nonnull BiConsumer<K, P> sender) {
+        int sent = 0;
+
+        Iterator<Map.Entry<K, P>> iterator = queue.entrySet().iterator();
+        while (sent < budget && iterator.hasNext()) {
+            Map.Entry<K, P> entry = iterator.next();
+            iterator.remove();
+
+            sender.accept(entry.getKey(), entry.getValue());
+            sent++;
+        }
+
+        return sent;
+    }
+}
@@ -0,0 +1,193 @@
+package com.thlion_.brewery.scheduler;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel, holds at most one timer per key and kind.
+ * Advancing the wheel only touches the slots that became due, so its cost
+ * scales with the amount of fired timers rather than with the amount of scheduled ones.
+ *
+ * <p>Not thread-safe, every wheel belongs to a single world thread.
+ */
+public class TimerWheel<K> {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    private final double resolution;
+    private final Entry<K>[][] wheels;
+    private final Map<K, Entry<K>>[] scheduled;
+
+    private long currentTick;
+
+    /**
+     * @param resolution duration of a single wheel tick in seconds
+     * @param kinds amount of timer kinds a single key can hold
+     * @param startTime current clock time in seconds
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(double resolution, int kinds, double startTime) {
+        this.resolution = resolution;
+        this.currentTick = (long) Math.floor(startTime / resolution);
+        // Generic arrays can't be created directly, both only ever hold entries of this wheel
+        this.wheels = (Entry<K>[][]) new Entry<?>[LEVELS][WHEEL_SIZE];
+        this.scheduled = (Map<K, Entry<K>>[]) new Map<?, ?>[kinds];
+
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                this.wheels[level][slot] = Entry.sentinel();
+            }
+        }
+
+        for (int kind = 0; kind < kinds; kind++) {
+            this.scheduled[kind] = new HashMap<>();
+        }
+    }
+
+    /**
+     * Schedules or reschedules the timer of the given key and kind.
+     *
+     * @param time clock time in seconds at which the timer fires, infinite time cancels the timer
+     */
+    public void schedule(@Nonnull K key, int kind, double time) {
+        if (Double.isInfinite(time)) {
+            this.cancel(key, kind);
+            return;
+        }
+
+        long deadline = Math.max((long) Math.ceil(time / this.resolution), this.currentTick + 1);
+
+        Entry<K> entry = this.scheduled[kind].get(key);
+        if (entry == null) {
+            entry = new Entry<>(key, kind);
+            this.scheduled[kind].put(key, entry);
+        } else {
+            entry.unlink();
+        }
+
+        entry.deadline = deadline;
+        this.insert(entry);
+    }
+
+    public void cancel(@Nonnull K key, int kind) {
+        Entry<K> entry = this.scheduled[kind].remove(key);
+        if (entry != null) {
+            entry.unlink();
+        }
+    }
+
+    public void cancelAll(@Nonnull K key) {
+        for (int kind = 0; kind < this.scheduled.length; kind++) {
+            this.cancel(key, kind);
+        }
+    }
+
+    public boolean isScheduled(@Nonnull K key, int kind) {
+        return this.scheduled[kind].containsKey(key);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<K, Entry<K>> entries : this.scheduled) {
+            size += entries.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Fires every timer due up to the given clock time. Listener may reschedule timers,
+     * a rescheduled timer fires on the next wheel tick at the earliest.
+     */
+    public void advance(double now, @Nonnull Listener<K> listener) {
+        long targetTick = (long) Math.floor(now / this.resolution);
+        while (this.currentTick < targetTick) {
+            this.currentTick++;
+
+            int index = (int) (this.currentTick & WHEEL_MASK);
+            if (index == 0) {
+                this.cascade(1);
+            }
+
+            Entry<K> head = this.wheels[0][index];
+            while (head.next != head) {
+                Entry<K> entry = head.next;
+                entry.unlink();
+
+                this.scheduled[entry.kind].remove(entry.key);
+                listener.onTimer(entry.key, entry.kind);
+            }
+        }
+    }
+
+    private void cascade(int level) {
+        if (level >= LEVELS) return;
+
+        int index = (int) ((this.currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        if (index == 0) {
+            this.cascade(level + 1);
+        }
+
+        Entry<K> head = this.wheels[level][index];
+        while (head.next != head) {
+            Entry<K> entry = head.next;
+            entry.unlink();
+            this.insert(entry);
+        }
+    }
+
+    private void insert(@Nonnull Entry<K> entry) {
+        long delay = Math.min(entry.deadline - this.currentTick, MAX_DELAY);
+        // Timers beyond the horizon are parked in the last slot and re-cascaded until due
+        long slotTick = this.currentTick + delay;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+
+        int index = (int) ((slotTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        entry.linkBefore(this.wheels[level][index]);
+    }
+
+    @FunctionalInterface
+    public interface Listener<K> {
+        void onTimer(@Nonnull K key, int kind);
+    }
+
+    private static class Entry<K> {
+        private final K key;
+        private final int kind;
+        private long deadline;
+
+        private Entry<K> prev = this;
+        private Entry<K> next = this;
+
+        private Entry(K key, int kind) {
+            this.key = key;
+            this.kind = kind;
+        }
+
+        private static <K> Entry<K> sentinel() {
+            return new Entry<>(null, -1);
+        }
+
+        private void linkBefore(@Nonnull Entry<K> head) {
+            this.prev = head.prev;
+            this.next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        private void unlink() {
+            this.prev.next = this.next;
+            this.next.prev = this.prev;
+            this.prev = this;
+            this.next = this;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.thlion_.brewery.trace;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a file written by {@link TraceRecorder}, oldest record first.
+ */
+public class TraceReader {
+    private final ByteBuffer file;
+    private final int capacity;
+    private final long written;
+    private final long startedAt;
+
+    private TraceReader(@Nonnull ByteBuffer file) throws IOException {
+        this.file = file;
+
+        if (file.getInt(TraceRecorder.MAGIC_OFFSET) != TraceRecorder.MAGIC) {
+            throw new IOException("Not a brewery trace");
+        }
+
+        int version = file.getInt(TraceRecorder.VERSION_OFFSET);
+        if (version != TraceRecorder.VERSION || file.getInt(TraceRecorder.RECORD_BYTES_OFFSET) != TraceRecord.BYTES) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+
+        this.capacity = file.getInt(TraceRecorder.CAPACITY_OFFSET);
+        this.written = file.getLong(TraceRecorder.WRITTEN_OFFSET);
+        this.startedAt = file.getLong(TraceRecorder.STARTED_AT_OFFSET);
+    }
+
+    @Nonnull
+    public static TraceReader open(@Nonnull Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new TraceReader(channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()));
+        }
+    }
+
+    /**
+     * @return wall clock time in milliseconds the trace was started at
+     */
+    public long getStartedAt() {
+        return this.startedAt;
+    }
+
+    /**
+     * @return amount of records ever written, older ones are overwritten past the capacity
+     */
+    public long getWritten() {
+        return this.written;
+    }
+
+    /**
+     * @return records still held by the file, oldest first
+     */
+    @Nonnull
+    public List<TraceRecord> readAll() {
+        int count = (int) Math.min(this.written, this.capacity);
+        long first = this.written - count;
+
+        List<TraceRecord> records = new ArrayList<>(count);
+        for (long i = first; i < this.written; i++) {
+            int position = TraceRecorder.HEADER_BYTES + (int) (i % this.capacity) * TraceRecord.BYTES;
+
+            records.add(new TraceRecord(
+                this.file.getLong(position),
+                this.file.getInt(position + 8),
+                this.file.getInt(position + 12),
+                this.file.getInt(position + 16),
+                this.file.getFloat(position + 20),
+                this.file.getFloat(position + 24),
+                this.file.getInt(position + 28)
+            ));
+        }
+
+        return records;
+    }
+}
@@ -0,0 +1,35 @@
+package com.thlion_.brewery.trace;
+
+/**
+ * Single brewery event of a trace.
+ *
+ * @param timeNanos nanoseconds since the recorder was opened
+ * @param world hash of the world name
+ * @param entity hash of the player uuid, {@code 0} if unknown
+ * @param value amount of the event, for example alcohol of a drink or amount of refilled items
+ * @param level drunk level after the event
+ * @param extra tier, shake bucket or item index, depending on the type
+ */
+public record TraceRecord(long timeNanos, int type, int world, int entity, float value, float level, int extra) {
+    public static final int DRINK = 1;
+    public static final int REFILL = 2;
+    public static final int TRANSITION = 3;
+    public static final int SHAKE = 4;
+    public static final int PLACE_VETOED = 5;
+
+    /**
+     * Encoded size of a record, the time followed by six 4 byte fields.
+     */
+    public static final int BYTES = 32;
+
+    public static String getTypeName(int type) {
+        return switch (type) {
+            case DRINK -> "drink";
+            case REFILL -> "refill";
+            case TRANSITION -> "transition";
+            case SHAKE -> "shake";
+            case PLACE_VETOED -> "place_vetoed";
+            default -> "unknown";
+        };
+    }
+}
@@ -0,0 +1,196 @@
+package com.thlion_.brewery.trace;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records brewery events into a rolling memory mapped file. World threads only claim a slot of an
+ * in-memory ring and fill it, a single writer thread copies published slots to the file.
+ * Recording never blocks, events are dropped while the ring is full.
+ *
+ * <p>File layout: {@link #HEADER_BYTES} of header, then {@code capacity} records of
+ * {@link TraceRecord#BYTES}, overwritten oldest first once the file is full.
+ */
+public class TraceRecorder implements AutoCloseable {
+    public static final int MAGIC = 0x42525452;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 32;
+    // A single mapping is limited to 2 GB
+    public static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_BYTES) / TraceRecord.BYTES;
+
+    // Header offsets, the rest of the header is reserved
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_BYTES_OFFSET = 8;
+    static final int CAPACITY_OFFSET = 12;
+    static final int WRITTEN_OFFSET = 16;
+    static final int STARTED_AT_OFFSET = 24;
+
+    private static final int RING_SIZE = 1 << 14;
+    private static final int RING_MASK = RING_SIZE - 1;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+
+    private final long originNanos = System.nanoTime();
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer file;
+    private final Thread writer;
+
+    // Ring of pending records, a slot is published by storing its sequence + 1
+    private final long[] times = new long[RING_SIZE];
+    private final int[] types = new int[RING_SIZE];
+    private final int[] worlds = new int[RING_SIZE];
+    private final int[] entities = new int[RING_SIZE];
+    private final float[] values = new float[RING_SIZE];
+    private final float[] levels = new float[RING_SIZE];
+    private final int[] extras = new int[RING_SIZE];
+    private final AtomicLongArray published = new AtomicLongArray(RING_SIZE);
+
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long consumed;
+    private volatile boolean closed;
+
+    // Writer thread only
+    private long written;
+
+    /**
+     * @param capacity amount of records the file holds before it rolls over
+     */
+    public TraceRecorder(@Nonnull Path path, int capacity) throws IOException {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Trace capacity must be in range 1.." + MAX_CAPACITY);
+        }
+
+        this.capacity = capacity;
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+        this.file = this.channel.map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_BYTES + (long) capacity * TraceRecord.BYTES);
+
+        this.file.putInt(MAGIC_OFFSET, MAGIC);
+        this.file.putInt(VERSION_OFFSET, VERSION);
+        this.file.putInt(RECORD_BYTES_OFFSET, TraceRecord.BYTES);
+        this.file.putInt(CAPACITY_OFFSET, capacity);
+        this.file.putLong(WRITTEN_OFFSET, 0L);
+        this.file.putLong(STARTED_AT_OFFSET, System.currentTimeMillis());
+
+        this.writer = new Thread(this::run, "Brewery-TraceWriter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Records a single event, safe to call from any thread.
+     */
+    public void record(int type, int world, int entity, float value, float level, int extra) {
+        this.record(System.nanoTime() - this.originNanos, type, world, entity, value, level, extra);
+    }
+
+    /**
+     * Records a single event with an explicit time, for traces of simulated clocks.
+     */
+    public void record(long timeNanos, int type, int world, int entity, float value, float level, int extra) {
+        long sequence;
+        do {
+            sequence = this.claimed.get();
+
+            // Writer is a full ring behind, drop rather than wait for it
+            if (this.closed || sequence - this.consumed >= RING_SIZE) {
+                this.dropped.increment();
+                return;
+            }
+        } while (!this.claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & RING_MASK);
+        this.times[slot] = timeNanos;
+        this.types[slot] = type;
+        this.worlds[slot] = world;
+        this.entities[slot] = entity;
+        this.values[slot] = value;
+        this.levels[slot] = level;
+        this.extras[slot] = extra;
+
+        // Release store makes the fields above visible to the writer
+        this.published.lazySet(slot, sequence + 1);
+    }
+
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    private void run() {
+        while (!this.closed) {
+            if (this.drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+
+        this.drain();
+    }
+
+    /**
+     * @return amount of records copied to the file
+     */
+    private int drain() {
+        int drained = 0;
+        long sequence = this.consumed;
+
+        while (true) {
+            int slot = (int) (sequence & RING_MASK);
+            if (this.published.get(slot) != sequence + 1) break;
+
+            int position = HEADER_BYTES + (int) (this.written % this.capacity) * TraceRecord.BYTES;
+            this.file.putLong(position, this.times[slot]);
+            this.file.putInt(position + 8, this.types[slot]);
+            this.file.putInt(position + 12, this.worlds[slot]);
+            this.file.putInt(position + 16, this.entities[slot]);
+            this.file.putFloat(position + 20, this.values[slot]);
+            this.file.putFloat(position + 24, this.levels[slot]);
+            this.file.putInt(position + 28, this.extras[slot]);
+
+            this.written++;
+            sequence++;
+            drained++;
+
+            // Hand the slot back to the producers
+            this.consumed = sequence;
+        }
+
+        if (drained > 0) {
+            this.file.putLong(WRITTEN_OFFSET, this.written);
+        }
+
+        return drained;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        LockSupport.unpark(this.writer);
+
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.file.force();
+        this.channel.close();
+    }
+}
@@ -0,0 +1,27 @@
+package com.thlion_.brewery.utils;
+
+/**
+ * Monotonic server clock in seconds, shared by every world.
+ */
+public class BreweryClock {
+    private static final long ORIGIN = System.nanoTime();
+
+    public static double now() {
+        return (System.nanoTime() - ORIGIN) / 1_000_000_000.0D;
+    }
+
+    /**
+     * @return wall clock time in milliseconds matching the given clock time
+     */
+    public static long toWallClock(double time) {
+        return System.currentTimeMillis() - Math.round((now() - time) * 1000.0D);
+    }
+
+    /**
+     * @return clock time matching the given wall clock time, never later than now
+     */
+    public static double fromWallClock(long wallClockMillis) {
+        long elapsed = Math.max(System.currentTimeMillis() - wallClockMillis, 0L);
+        return now() - elapsed / 1000.0D;
+    }
+}
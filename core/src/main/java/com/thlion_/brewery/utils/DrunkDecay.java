@@ -0,0 +1,28 @@
+package com.thlion_.brewery.utils;
+
+/**
+ * Linear decay of a drunk level anchored at a clock time, evaluated in closed form.
+ */
+public class DrunkDecay {
+    /**
+     * @param level drunk level at {@code time}
+     * @param time clock time in seconds the level was anchored at
+     * @param soberUpRate drunk level lost per second
+     * @return drunk level at {@code now}, never negative
+     */
+    public static float getLevelAt(float level, double time, float soberUpRate, double now) {
+        if (soberUpRate <= 0.0F) return level;
+
+        double elapsed = Math.max(now - time, 0.0D);
+        return (float) Math.max(level - soberUpRate * elapsed, 0.0D);
+    }
+
+    /**
+     * @return clock time at which the anchored level drops to {@code target}, infinite if it never does
+     */
+    public static double getTimeAtLevel(float level, double time, float soberUpRate, float target) {
+        if (soberUpRate <= 0.0F) return Double.POSITIVE_INFINITY;
+
+        return time + (level - target) / soberUpRate;
+    }
+}
@@ -0,0 +1,314 @@
+package com.thlion_.brewery.sim;
+
+import com.thlion_.brewery.config.DrunkTierTable;
+import com.thlion_.brewery.drunk.DrunkMachine;
+import com.thlion_.brewery.drunk.DrunkRules;
+import com.thlion_.brewery.drunk.DrunkState;
+import com.thlion_.brewery.leaderboard.DrunkLeaderboard;
+import com.thlion_.brewery.metrics.LatencyHistogram;
+import com.thlion_.brewery.trace.TraceRecord;
+import com.thlion_.brewery.trace.TraceRecorder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Runs virtual drinkers through the {@link DrunkMachine} on a simulated clock, the way {@code SoberUpSystem}
+ * drives a single world: drinks re-anchor the level, timers fire tier transitions and shake refreshes,
+ * and shake packets go through the budgeted scheduler. Effects and packets are only counted.
+ *
+ * <p>Usage: {@code DrunkSimulator [--drinkers N] [--hours H] [--tps N] [--budget N] [--seed N] [--trace PATH]}
+ * Drinks and tier transitions are recorded on the simulated clock if a trace path is given.
+ */
+public class DrunkSimulator {
+    // Drinks are scheduled on the machine wheel, after its own timer kinds
+    private static final int DRINK = DrunkMachine.KINDS;
+
+    private static final int SHAKE_BUCKETS = 16;
+
+    // Defaults of the shipped config
+    private static final float SOBER_UP_RATE = 0.1F;
+    private static final float[] TIER_THRESHOLDS = {1.0F, 15.0F, 40.0F, 70.0F};
+    private static final String[] TIER_EFFECTS = {"Sober", "Little_Drunk", "Drunk", "Very_Drunk"};
+
+    // Every drinker has a drink about every ten minutes, each worth 5 to 25 levels
+    private static final double MEAN_DRINK_INTERVAL = 600.0D;
+    private static final float MIN_ALCOHOL = 5.0F;
+    private static final float MAX_ALCOHOL = 25.0F;
+
+    private final Options options;
+    private final Random random;
+
+    private final DrunkRules rules = new DrunkRules(DrunkTierTable.compile(TIER_THRESHOLDS, TIER_EFFECTS), SOBER_UP_RATE, SHAKE_BUCKETS);
+    private final DrunkMachine<DrunkSimulator, Integer, DrunkState> machine;
+    private final DrunkLeaderboard<Integer> leaderboard = new DrunkLeaderboard<>();
+    private final LatencyHistogram tickTime = new LatencyHistogram();
+    @Nullable
+    private final TraceRecorder trace;
+
+    // Drinkers are plain indices, keys are boxed once up front
+    private final Integer[] keys;
+    private final String[] names;
+    private final DrunkState[] states;
+
+    // Due timer kinds as bit flags, drinkers are listed once per tick
+    private final int[] dueKinds;
+    private final int[] dueDrinkers;
+    private int dueCount;
+
+    private double now;
+
+    private long drinks;
+    private long timersFired;
+    private long tierChanges;
+    private long effectsAdded;
+    private long shakePacketsSent;
+    private int peakQueuedShakes;
+
+    private DrunkSimulator(@Nonnull Options options, @Nullable TraceRecorder trace) {
+        this.options = options;
+        this.trace = trace;
+        this.random = new Random(options.seed);
+        this.machine = new DrunkMachine<>(DrunkMachine.KINDS + 1, () -> this.now, new CountedEffects(), this::sendShake);
+
+        int drinkers = options.drinkers;
+        this.keys = new Integer[drinkers];
+        this.names = new String[drinkers];
+        this.states = new DrunkState[drinkers];
+        this.dueKinds = new int[drinkers];
+        this.dueDrinkers = new int[drinkers];
+
+        for (int i = 0; i < drinkers; i++) {
+            this.keys[i] = i;
+            this.names[i] = "Drinker_" + i;
+            this.states[i] = new DrunkState(0.0D, SOBER_UP_RATE);
+            // Drinkers start sober without any effect
+            this.states[i].setAppliedTier(DrunkTierTable.NO_TIER);
+
+            this.machine.getTimers().schedule(this.keys[i], DRINK, this.random.nextDouble() * MEAN_DRINK_INTERVAL);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        if (options.trace == null) {
+            new DrunkSimulator(options, null).run();
+            return;
+        }
+
+        try (TraceRecorder trace = new TraceRecorder(Path.of(options.trace), options.traceCapacity())) {
+            new DrunkSimulator(options, trace).run();
+            System.out.printf("Trace written to %s, %d records dropped%n", options.trace, trace.getDropped());
+        }
+    }
+
+    private void run() {
+        double tickDuration = 1.0D / this.options.tps;
+        long ticks = (long) (this.options.hours * 3600.0D * this.options.tps);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocatedBefore = getAllocatedBytes(threads);
+        long startNanos = System.nanoTime();
+
+        for (long tick = 1; tick <= ticks; tick++) {
+            long tickStart = System.nanoTime();
+
+            this.now = tick * tickDuration;
+            this.tick();
+
+            this.tickTime.record(System.nanoTime() - tickStart);
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedAfter = getAllocatedBytes(threads);
+
+        this.report(ticks, elapsedNanos, allocatedBefore < 0L ? -1L : allocatedAfter - allocatedBefore);
+    }
+
+    private void tick() {
+        // Collect first, so every drinker is visited once, whatever amount of its timers are due
+        this.machine.advance(this::onTimer);
+
+        for (int i = 0; i < this.dueCount; i++) {
+            int drinker = this.dueDrinkers[i];
+            int kinds = this.dueKinds[drinker];
+
+            this.dueKinds[drinker] = 0;
+            this.onTimers(drinker, kinds);
+        }
+
+        this.dueCount = 0;
+
+        this.peakQueuedShakes = Math.max(this.peakQueuedShakes, this.machine.getQueuedShakes());
+        this.machine.flushShakes(this, this.rules, this.options.budget);
+    }
+
+    private void onTimer(@Nonnull Integer key, int kind) {
+        int drinker = key;
+        if (this.dueKinds[drinker] == 0) {
+            this.dueDrinkers[this.dueCount++] = drinker;
+        }
+
+        this.dueKinds[drinker] |= 1 << kind;
+        this.timersFired++;
+    }
+
+    private void onTimers(int drinker, int kinds) {
+        boolean drink = (kinds & (1 << DRINK)) != 0;
+        if (drink) {
+            this.drink(drinker);
+        }
+
+        // A drink re-anchors the level, so transitions are rescheduled as well
+        if (drink || (kinds & (1 << DrunkMachine.TRANSITION)) != 0) {
+            this.update(drinker, drink);
+        }
+
+        if ((kinds & (1 << DrunkMachine.SHAKE)) != 0) {
+            this.machine.refreshShake(this.keys[drinker], this.states[drinker], this.rules);
+        }
+    }
+
+    private void drink(int drinker) {
+        float alcohol = MIN_ALCOHOL + this.random.nextFloat() * (MAX_ALCOHOL - MIN_ALCOHOL);
+
+        DrunkState state = this.states[drinker];
+        state.increase(alcohol, this.now, SOBER_UP_RATE);
+        this.drinks++;
+
+        float level = state.getLevel(this.now);
+        this.leaderboard.update(this.keys[drinker], this.names[drinker], level, this.now, SOBER_UP_RATE);
+        this.record(TraceRecord.DRINK, drinker, alcohol, level, 0);
+
+        double interval = -Math.log(1.0D - this.random.nextDouble()) * MEAN_DRINK_INTERVAL;
+        this.machine.getTimers().schedule(this.keys[drinker], DRINK, this.now + interval);
+    }
+
+    private void update(int drinker, boolean drink) {
+        DrunkState state = this.states[drinker];
+        int appliedTier = state.getAppliedTier();
+
+        float level = this.machine.update(this, this.keys[drinker], state, this.rules, drink);
+
+        if (state.getAppliedTier() != appliedTier) {
+            this.tierChanges++;
+            this.record(TraceRecord.TRANSITION, drinker, 0.0F, level, state.getAppliedTier());
+        }
+
+        if (level <= 0.0F) {
+            this.leaderboard.remove(this.keys[drinker]);
+        }
+    }
+
+    private boolean sendShake(@Nonnull DrunkSimulator simulator, @Nonnull Integer key, @Nonnull DrunkState state, int bucket) {
+        this.shakePacketsSent++;
+        return true;
+    }
+
+    private void record(int type, int drinker, float value, float level, int extra) {
+        if (this.trace == null) return;
+
+        this.trace.record((long) (this.now * 1_000_000_000.0D), type, 0, drinker, value, level, extra);
+    }
+
+    private void report(long ticks, long elapsedNanos, long allocatedBytes) {
+        double seconds = elapsedNanos / 1_000_000_000.0D;
+        double simulatedSeconds = this.options.hours * 3600.0D;
+
+        System.out.printf(
+            "Simulated %d drinkers for %.1f h (%d ticks at %d TPS) in %.2f s, %.0fx real time%n",
+            this.options.drinkers, this.options.hours, ticks, this.options.tps, seconds, simulatedSeconds / seconds
+        );
+        System.out.printf(
+            "Tick time: mean %d ns, p99 <= %d ns, max %d ns%n",
+            this.tickTime.getMeanNanos(), this.tickTime.getPercentileNanos(0.99D), this.tickTime.getMaxNanos()
+        );
+        System.out.printf(
+            "Events: %d drinks, %d timers fired, %d tier changes, %d effects added, %d shake packets, %d queued shakes at peak%n",
+            this.drinks, this.timersFired, this.tierChanges, this.effectsAdded, this.shakePacketsSent, this.peakQueuedShakes
+        );
+        System.out.printf(
+            "Throughput: %.0f ticks/s, %.0f timers/s, %.0f drinker hours/s%n",
+            ticks / seconds, this.timersFired / seconds, this.options.drinkers * this.options.hours / seconds
+        );
+
+        if (allocatedBytes >= 0L) {
+            System.out.printf(
+                "Allocation: %.1f MB total, %.0f bytes/tick, %.1f MB/s%n",
+                allocatedBytes / 1_048_576.0D, (double) allocatedBytes / ticks, allocatedBytes / 1_048_576.0D / seconds
+            );
+        } else {
+            System.out.println("Allocation: not supported by this JVM");
+        }
+
+        System.out.printf("Still drunk at the end: %d, drunkest:%n", this.leaderboard.size());
+        for (DrunkLeaderboard.Standing<Integer> standing : this.leaderboard.top(5, this.now, null)) {
+            System.out.printf("  %s %.1f%n", standing.name(), standing.drunkLevel());
+        }
+    }
+
+    private static long getAllocatedBytes(@Nonnull ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean allocation && allocation.isThreadAllocatedMemorySupported()) {
+            return allocation.getCurrentThreadAllocatedBytes();
+        }
+
+        return -1L;
+    }
+
+    /**
+     * Drinkers have no effect controller, added effects are only counted.
+     */
+    private class CountedEffects implements DrunkMachine.Effects<DrunkSimulator, Integer> {
+        @Override
+        public boolean has(@Nonnull DrunkSimulator simulator, @Nonnull Integer key, int tierIndex) {
+            return false;
+        }
+
+        @Override
+        public void clear(@Nonnull DrunkSimulator simulator, @Nonnull Integer key) {
+        }
+
+        @Override
+        public void add(@Nonnull DrunkSimulator simulator, @Nonnull Integer key, int tierIndex) {
+            DrunkSimulator.this.effectsAdded++;
+        }
+    }
+
+    private record Options(int drinkers, double hours, int tps, int budget, long seed, @Nullable String trace) {
+        private int traceCapacity() {
+            // Rolls over after about a hundred records per drinker
+            return (int) Math.min(this.drinkers * 100L, TraceRecorder.MAX_CAPACITY);
+        }
+
+        @Nonnull
+        private static Options parse(@Nonnull String[] args) {
+            int drinkers = 10_000;
+            double hours = 4.0D;
+            int tps = 30;
+            int budget = 64;
+            long seed = 42L;
+            String trace = null;
+
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+
+                switch (args[i]) {
+                    case "--drinkers" -> drinkers = Integer.parseInt(value);
+                    case "--hours" -> hours = Double.parseDouble(value);
+                    case "--tps" -> tps = Integer.parseInt(value);
+                    case "--budget" -> budget = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--trace" -> trace = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+
+            return new Options(drinkers, hours, tps, budget, seed, trace);
+        }
+    }
+}
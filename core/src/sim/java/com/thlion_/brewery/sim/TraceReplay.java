@@ -0,0 +1,169 @@
+package com.thlion_.brewery.sim;
+
+import com.thlion_.brewery.config.DrunkTierTable;
+import com.thlion_.brewery.trace.TraceReader;
+import com.thlion_.brewery.trace.TraceRecord;
+import com.thlion_.brewery.utils.DrunkDecay;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feeds a recorded trace back through the decay and tier logic of the core. Every recorded level
+ * is compared with the level predicted from the previous record of the same player, then replay
+ * continues from the recorded one, so sleep, death and commands show up as divergences only once.
+ *
+ * <p>Usage: {@code TraceReplay <trace> [--rate R] [--tiers 1,15,40,70] [--repeat N]}
+ */
+public class TraceReplay {
+    // Allowed difference between predicted and recorded levels, fixed point saves round to 0.01
+    private static final float LEVEL_TOLERANCE = 0.02F;
+
+    private final List<TraceRecord> records;
+    private final float soberUpRate;
+    private final DrunkTierTable tiers;
+
+    private long divergedLevels;
+    private long divergedTiers;
+    private long tierChanges;
+
+    private TraceReplay(@Nonnull List<TraceRecord> records, float soberUpRate, @Nonnull DrunkTierTable tiers) {
+        this.records = records;
+        this.soberUpRate = soberUpRate;
+        this.tiers = tiers;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: TraceReplay <trace> [--rate R] [--tiers 1,15,40,70] [--repeat N]");
+            return;
+        }
+
+        float soberUpRate = 0.1F;
+        float[] thresholds = {1.0F, 15.0F, 40.0F, 70.0F};
+        int repeat = 5;
+
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+
+            switch (args[i]) {
+                case "--rate" -> soberUpRate = Float.parseFloat(value);
+                case "--tiers" -> thresholds = parseThresholds(value);
+                case "--repeat" -> repeat = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        TraceReader reader = TraceReader.open(Path.of(args[0]));
+        List<TraceRecord> records = reader.readAll();
+
+        System.out.printf(
+            "Trace started at %s, %d records held of %d written%n",
+            Instant.ofEpochMilli(reader.getStartedAt()), records.size(), reader.getWritten()
+        );
+        if (records.isEmpty()) return;
+
+        printSummary(records);
+
+        String[] effectIds = new String[thresholds.length];
+        for (int i = 0; i < effectIds.length; i++) {
+            effectIds[i] = "Tier_" + i;
+        }
+
+        TraceReplay replay = new TraceReplay(records, soberUpRate, DrunkTierTable.compile(thresholds, effectIds));
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < Math.max(repeat, 1); i++) {
+            long start = System.nanoTime();
+            replay.replay();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        System.out.printf(
+            "Replay: %d tier changes, %d diverged levels, %d diverged tiers%n",
+            replay.tierChanges, replay.divergedLevels, replay.divergedTiers
+        );
+        System.out.printf(
+            "Best of %d: %.2f ms, %.0f records/s%n",
+            Math.max(repeat, 1), bestNanos / 1_000_000.0D, records.size() / (bestNanos / 1_000_000_000.0D)
+        );
+    }
+
+    private void replay() {
+        Map<Long, Drinker> drinkers = new HashMap<>();
+
+        this.divergedLevels = 0L;
+        this.divergedTiers = 0L;
+        this.tierChanges = 0L;
+
+        for (TraceRecord record : this.records) {
+            if (record.type() != TraceRecord.DRINK && record.type() != TraceRecord.TRANSITION) continue;
+
+            double time = record.timeNanos() / 1_000_000_000.0D;
+            long key = ((long) record.world() << 32) | (record.entity() & 0xFFFFFFFFL);
+
+            Drinker drinker = drinkers.computeIfAbsent(key, k -> new Drinker());
+            float predicted = DrunkDecay.getLevelAt(drinker.level, drinker.time, this.soberUpRate, time);
+
+            if (record.type() == TraceRecord.DRINK) {
+                predicted = Math.min(predicted + record.value(), 100.0F);
+            }
+
+            if (drinker.known && Math.abs(predicted - record.level()) > LEVEL_TOLERANCE) {
+                this.divergedLevels++;
+            }
+
+            drinker.level = record.level();
+            drinker.time = time;
+            drinker.known = true;
+
+            int tier = this.tiers.getTierIndex(record.level());
+            if (record.type() == TraceRecord.TRANSITION && tier != record.extra()) {
+                this.divergedTiers++;
+            }
+
+            if (tier != drinker.tier) {
+                drinker.tier = tier;
+                this.tierChanges++;
+            }
+        }
+    }
+
+    private static void printSummary(@Nonnull List<TraceRecord> records) {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (TraceRecord record : records) {
+            counts.merge(record.type(), 1L, Long::sum);
+        }
+
+        double seconds = (records.get(records.size() - 1).timeNanos() - records.get(0).timeNanos()) / 1_000_000_000.0D;
+        System.out.printf("Span: %.1f s%n", seconds);
+
+        counts.forEach((type, count) -> System.out.printf(
+            "  %-12s %d (%.2f/s)%n", TraceRecord.getTypeName(type), count, seconds > 0.0D ? count / seconds : 0.0D
+        ));
+    }
+
+    @Nonnull
+    private static float[] parseThresholds(@Nonnull String value) {
+        String[] parts = value.split(",");
+
+        float[] thresholds = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            thresholds[i] = Float.parseFloat(parts[i].trim());
+        }
+
+        return thresholds;
+    }
+
+    private static class Drinker {
+        private float level;
+        private double time;
+        private int tier = DrunkTierTable.NO_TIER;
+        private boolean known;
+    }
+}
@@ -1 +1,4 @@
-rootProject.name = "AleAndHearth"
\ No newline at end of file
+rootProject.name = "AleAndHearth"
+
+// Engine independent brewery logic, builds and runs without the server
+include("core")
\ No newline at end of file
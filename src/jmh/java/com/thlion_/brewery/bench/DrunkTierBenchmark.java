@@ -0,0 +1,70 @@
+package com.thlion_.brewery.bench;
+
+import com.thlion_.brewery.config.DrunkTierTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tier resolution done by {@code SoberUpSystem.updateDrunkEffects}:
+ * stream over a descending tier list against a binary search in {@link DrunkTierTable}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrunkTierBenchmark {
+    @Param({"4", "16", "64"})
+    public int tiers;
+
+    private List<DrunkTier> tierList;
+    private DrunkTierTable tierTable;
+    private float[] levels;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        float[] thresholds = new float[this.tiers];
+        String[] effectIds = new String[this.tiers];
+
+        this.tierList = new ArrayList<>();
+        for (int i = this.tiers - 1; i >= 0; i--) {
+            thresholds[i] = 1.0F + i * (99.0F / this.tiers);
+            effectIds[i] = "Brewery_Drink_Effect_" + i;
+            this.tierList.add(new DrunkTier(thresholds[i], effectIds[i]));
+        }
+
+        this.tierTable = DrunkTierTable.compile(thresholds, effectIds);
+
+        this.levels = new float[1024];
+        for (int i = 0; i < this.levels.length; i++) {
+            this.levels[i] = (i * 37 % 1000) / 10.0F;
+        }
+    }
+
+    private float nextLevel() {
+        this.cursor = (this.cursor + 1) & (this.levels.length - 1);
+        return this.levels[this.cursor];
+    }
+
+    @Benchmark
+    public DrunkTier streamLookup() {
+        float drunkLevel = this.nextLevel();
+
+        return this.tierList.stream()
+            .filter(tier -> drunkLevel >= tier.threshold)
+            .findFirst()
+            .orElse(null);
+    }
+
+    @Benchmark
+    public int binarySearchLookup() {
+        return this.tierTable.getTierIndex(this.nextLevel());
+    }
+
+    public record DrunkTier(float threshold, String effectName) {}
+}
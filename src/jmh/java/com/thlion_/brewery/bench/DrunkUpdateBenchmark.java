@@ -0,0 +1,127 @@
+package com.thlion_.brewery.bench;
+
+import com.thlion_.brewery.config.DrunkTierTable;
+import com.thlion_.brewery.drunk.DrunkMachine;
+import com.thlion_.brewery.drunk.DrunkRules;
+import com.thlion_.brewery.drunk.DrunkState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single player update done by {@code SoberUpSystem.updateDrunkEffects} through {@link DrunkMachine}:
+ * timer rescheduling, tier swaps and shake queueing. Effects and packets go to array backed adapters,
+ * so only the machine itself is measured, not the engine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrunkUpdateBenchmark {
+    private static final float SOBER_UP_RATE = 0.1F;
+    private static final int SHAKE_BUCKETS = 8;
+
+    @Param({"200", "2000"})
+    public int players;
+
+    private DrunkMachine<int[], Integer, DrunkState> machine;
+    private DrunkRules rules;
+    private Integer[] keys;
+    private DrunkState[] states;
+    // Effect tier applied to every player, the context handed to the adapters
+    private int[] appliedEffects;
+    private float[] levels;
+    private double now;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        float[] thresholds = {10.0F, 30.0F, 60.0F, 85.0F};
+        String[] effectIds = new String[thresholds.length];
+        for (int i = 0; i < thresholds.length; i++) {
+            effectIds[i] = "Brewery_Drink_Effect_" + i;
+        }
+
+        this.rules = new DrunkRules(DrunkTierTable.compile(thresholds, effectIds), SOBER_UP_RATE, SHAKE_BUCKETS);
+        this.machine = new DrunkMachine<>(DrunkMachine.KINDS, () -> this.now, new ArrayEffects(), (context, key, state, bucket) -> true);
+
+        this.keys = new Integer[this.players];
+        this.states = new DrunkState[this.players];
+        this.appliedEffects = new int[this.players];
+        Arrays.fill(this.appliedEffects, DrunkTierTable.NO_TIER);
+
+        this.now = 1000.0D;
+        for (int i = 0; i < this.players; i++) {
+            this.keys[i] = i;
+            this.states[i] = new DrunkState(this.now, SOBER_UP_RATE);
+            this.states[i].setLevel(20.0F + i % 80, this.now, SOBER_UP_RATE);
+            this.machine.update(this.appliedEffects, this.keys[i], this.states[i], this.rules, false);
+        }
+
+        this.levels = new float[1024];
+        for (int i = 0; i < this.levels.length; i++) {
+            this.levels[i] = (i * 37 % 1000) / 10.0F;
+        }
+    }
+
+    private int nextPlayer() {
+        this.cursor = (this.cursor + 1) % this.players;
+        this.now += 0.001D;
+        return this.cursor;
+    }
+
+    /**
+     * Transition timer of a player whose tier is unchanged, only timers are rescheduled.
+     */
+    @Benchmark
+    public float steadyUpdate() {
+        int player = this.nextPlayer();
+        return this.machine.update(this.appliedEffects, this.keys[player], this.states[player], this.rules, false);
+    }
+
+    /**
+     * Level jumps around, so most updates swap tier effects.
+     */
+    @Benchmark
+    public float transitionUpdate() {
+        int player = this.nextPlayer();
+        DrunkState state = this.states[player];
+
+        state.setLevel(this.levels[(int) (this.now * 1000.0D) & (this.levels.length - 1)], this.now, SOBER_UP_RATE);
+        return this.machine.update(this.appliedEffects, this.keys[player], state, this.rules, false);
+    }
+
+    /**
+     * Drink followed by the shake it queues, flushed one packet per drink.
+     */
+    @Benchmark
+    public int drinkUpdate() {
+        int player = this.nextPlayer();
+        DrunkState state = this.states[player];
+
+        state.setLevel(this.levels[(int) (this.now * 1000.0D) & (this.levels.length - 1)], this.now, SOBER_UP_RATE);
+        this.machine.update(this.appliedEffects, this.keys[player], state, this.rules, true);
+
+        return this.machine.flushShakes(this.appliedEffects, this.rules, 1);
+    }
+
+    private static class ArrayEffects implements DrunkMachine.Effects<int[], Integer> {
+        @Override
+        public boolean has(int[] appliedEffects, Integer key, int tierIndex) {
+            return appliedEffects[key] == tierIndex;
+        }
+
+        @Override
+        public void clear(int[] appliedEffects, Integer key) {
+            appliedEffects[key] = DrunkTierTable.NO_TIER;
+        }
+
+        @Override
+        public void add(int[] appliedEffects, Integer key, int tierIndex) {
+            appliedEffects[key] = tierIndex;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.thlion_.brewery.bench;
+
+import com.thlion_.brewery.registry.ItemClassifier;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per placement work of {@code PlaceBlockSystem.handle}: {@link ItemClassifier} run on every placement
+ * against the item classes precomputed on asset load, as {@code ItemRegistry} does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceBlockBenchmark {
+    private static final String[] ITEM_IDS = {
+        "Rock_Stone_Brick",
+        "Wood_Oak_Planks",
+        "Brewery_Beer_Mug",
+        "Soil_Grass",
+        "Deco_Micro_Barrel",
+        "Furniture_Tavern_Bar_Table",
+        "hytale:teleporter",
+        "Rock_Marble_Cobble"
+    };
+
+    private static final List<Map<String, String[]>> ITEM_TAGS = List.of(
+        Map.of(ItemClassifier.TYPE_TAG, new String[]{"Rock", "Block"}),
+        Map.of(ItemClassifier.TYPE_TAG, new String[]{"Wood", "Block"}),
+        Map.of(ItemClassifier.TYPE_TAG, new String[]{"Consumable", "Brewery_Drink"}),
+        Map.of(),
+        Map.of(ItemClassifier.TYPE_TAG, new String[]{"Deco"}),
+        Map.of(ItemClassifier.TYPE_TAG, new String[]{"Furniture"}),
+        Map.of(),
+        Map.of(ItemClassifier.TYPE_TAG, new String[]{"Rock", "Block"})
+    );
+
+    private Object2IntOpenHashMap<String> indices;
+    private byte[] classes;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        this.indices = new Object2IntOpenHashMap<>();
+        this.indices.defaultReturnValue(-1);
+        this.classes = new byte[ITEM_IDS.length];
+
+        for (int i = 0; i < ITEM_IDS.length; i++) {
+            this.indices.put(ITEM_IDS[i], i);
+            this.classes[i] = ItemClassifier.classify(ITEM_IDS[i], ITEM_TAGS.get(i));
+        }
+    }
+
+    @Benchmark
+    public boolean classified() {
+        this.cursor = (this.cursor + 1) & (ITEM_IDS.length - 1);
+
+        int index = this.indices.getInt(ITEM_IDS[this.cursor]);
+        return index >= 0 && this.classes[index] == ItemClassifier.CLASS_BREWERY_DRINK;
+    }
+
+    @Benchmark
+    public boolean classifyOnPlace() {
+        this.cursor = (this.cursor + 1) & (ITEM_IDS.length - 1);
+
+        return ItemClassifier.classify(ITEM_IDS[this.cursor], ITEM_TAGS.get(this.cursor)) == ItemClassifier.CLASS_BREWERY_DRINK;
+    }
+}
@@ -0,0 +1,94 @@
+package com.thlion_.brewery.bench;
+
+import com.thlion_.brewery.refill.AssetIndex;
+import com.thlion_.brewery.refill.RefillTable;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block and fluid to refill target resolution of {@code BreweryRefillContainerInteraction} through
+ * {@link RefillTable}. Assets come from map backed {@link AssetIndex} adapters, a quarter of the
+ * queried ids have a target.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefillLookupBenchmark {
+    private static final int BLOCK_TYPES = 8192;
+    private static final int FLUID_TYPES = 64;
+
+    private static final int[] WATER_BLOCKS = {1203, 1204, 4511};
+    private static final int[] MILK_BLOCKS = {7020};
+    private static final int[] WATER_FLUIDS = {3, 4};
+
+    private RefillTable<String> table;
+    private int[] blockQueries;
+    private int[] fluidQueries;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        AssetIndex blocks = index("Block_", BLOCK_TYPES);
+        AssetIndex fluids = index("Fluid_", FLUID_TYPES);
+
+        this.table = RefillTable.<String>builder(blocks, fluids)
+            .add(keys("Block_", WATER_BLOCKS), keys("Fluid_", WATER_FLUIDS), "Filled_Water")
+            .add(keys("Block_", MILK_BLOCKS), new String[0], "Filled_Milk")
+            .build(0);
+
+        int[] refillBlocks = {WATER_BLOCKS[0], WATER_BLOCKS[1], WATER_BLOCKS[2], MILK_BLOCKS[0]};
+
+        this.blockQueries = new int[256];
+        this.fluidQueries = new int[256];
+        for (int i = 0; i < this.blockQueries.length; i++) {
+            this.blockQueries[i] = i % 4 == 0 ? refillBlocks[i / 4 % refillBlocks.length] : (i * 131) % BLOCK_TYPES;
+            this.fluidQueries[i] = i % 4 == 0 ? WATER_FLUIDS[i / 4 % WATER_FLUIDS.length] : (i * 7) % FLUID_TYPES;
+        }
+    }
+
+    @Benchmark
+    public String blockTarget() {
+        this.cursor = (this.cursor + 1) & (this.blockQueries.length - 1);
+        return this.table.getBlockTarget(this.blockQueries[this.cursor]);
+    }
+
+    @Benchmark
+    public String fluidTarget() {
+        this.cursor = (this.cursor + 1) & (this.fluidQueries.length - 1);
+        return this.table.getFluidTarget(this.fluidQueries[this.cursor]);
+    }
+
+    @Benchmark
+    public String resolve() {
+        this.cursor = (this.cursor + 1) & (this.blockQueries.length - 1);
+        return this.table.resolve(this.blockQueries[this.cursor], this.fluidQueries[this.cursor]);
+    }
+
+    /**
+     * @return index of {@code count} assets, the key of each is its id behind {@code prefix}
+     */
+    private static AssetIndex index(String prefix, int count) {
+        Object2IntOpenHashMap<String> ids = new Object2IntOpenHashMap<>(count);
+        ids.defaultReturnValue(-1);
+
+        for (int id = 0; id < count; id++) {
+            ids.put(prefix + id, id);
+        }
+
+        return ids::getInt;
+    }
+
+    private static String[] keys(String prefix, int[] ids) {
+        String[] keys = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            keys[i] = prefix + ids[i];
+        }
+
+        return keys;
+    }
+}
@@ -0,0 +1,126 @@
+package com.thlion_.brewery.bench;
+
+import com.thlion_.brewery.config.DrunkTierTable;
+import com.thlion_.brewery.drunk.DrunkMachine;
+import com.thlion_.brewery.drunk.DrunkRules;
+import com.thlion_.brewery.drunk.DrunkState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One world tick of {@code SoberUpSystem} through {@link DrunkMachine}: advancing the timers while
+ * collecting the due kinds of every player, handling transitions and shake refreshes, then flushing
+ * the shake queue within its budget. One player drinks per tick, which keeps everyone drunk.
+ * Effects and packets go to array backed adapters, as in {@link DrunkUpdateBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoberUpTickBenchmark {
+    private static final double DELTA_TIME = 1.0D / 30.0D;
+    private static final float SOBER_UP_RATE = 0.1F;
+    private static final int SHAKE_BUCKETS = 8;
+    private static final int SHAKE_BUDGET = 64;
+
+    @Param({"200", "2000"})
+    public int players;
+
+    private DrunkMachine<int[], Integer, DrunkState> machine;
+    private DrunkRules rules;
+    private Integer[] keys;
+    private DrunkState[] states;
+    // Effect tier applied to every player, the context handed to the adapters
+    private int[] appliedEffects;
+    private int[] dueKinds;
+    private int[] duePlayers;
+    private int dueCount;
+    private double now;
+    private int drinker;
+
+    @Setup
+    public void setup() {
+        float[] thresholds = {10.0F, 30.0F, 60.0F, 85.0F};
+        String[] effectIds = new String[thresholds.length];
+        for (int i = 0; i < thresholds.length; i++) {
+            effectIds[i] = "Brewery_Drink_Effect_" + i;
+        }
+
+        this.rules = new DrunkRules(DrunkTierTable.compile(thresholds, effectIds), SOBER_UP_RATE, SHAKE_BUCKETS);
+        this.machine = new DrunkMachine<>(DrunkMachine.KINDS, () -> this.now, new ArrayEffects(), (context, key, state, bucket) -> true);
+
+        this.keys = new Integer[this.players];
+        this.states = new DrunkState[this.players];
+        this.appliedEffects = new int[this.players];
+        this.dueKinds = new int[this.players];
+        this.duePlayers = new int[this.players];
+        Arrays.fill(this.appliedEffects, DrunkTierTable.NO_TIER);
+
+        for (int i = 0; i < this.players; i++) {
+            this.keys[i] = i;
+            this.states[i] = new DrunkState(this.now, SOBER_UP_RATE);
+            this.states[i].setLevel(20.0F + i % 80, this.now, SOBER_UP_RATE);
+            this.machine.update(this.appliedEffects, this.keys[i], this.states[i], this.rules, true);
+        }
+    }
+
+    @Benchmark
+    public int tick() {
+        this.now += DELTA_TIME;
+
+        this.drinker = (this.drinker + 1) % this.players;
+        this.states[this.drinker].increase(10.0F, this.now, SOBER_UP_RATE);
+        this.machine.update(this.appliedEffects, this.keys[this.drinker], this.states[this.drinker], this.rules, true);
+
+        this.machine.advance(this::onTimer);
+
+        for (int i = 0; i < this.dueCount; i++) {
+            int player = this.duePlayers[i];
+            int kinds = this.dueKinds[player];
+            this.dueKinds[player] = 0;
+
+            if ((kinds & (1 << DrunkMachine.TRANSITION)) != 0) {
+                this.machine.update(this.appliedEffects, this.keys[player], this.states[player], this.rules, false);
+            }
+
+            if ((kinds & (1 << DrunkMachine.SHAKE)) != 0) {
+                this.machine.refreshShake(this.keys[player], this.states[player], this.rules);
+            }
+        }
+
+        int dueCount = this.dueCount;
+        this.dueCount = 0;
+
+        return dueCount + this.machine.flushShakes(this.appliedEffects, this.rules, SHAKE_BUDGET);
+    }
+
+    private void onTimer(Integer key, int kind) {
+        int player = key;
+        if (this.dueKinds[player] == 0) {
+            this.duePlayers[this.dueCount++] = player;
+        }
+
+        this.dueKinds[player] |= 1 << kind;
+    }
+
+    private static class ArrayEffects implements DrunkMachine.Effects<int[], Integer> {
+        @Override
+        public boolean has(int[] appliedEffects, Integer key, int tierIndex) {
+            return appliedEffects[key] == tierIndex;
+        }
+
+        @Override
+        public void clear(int[] appliedEffects, Integer key) {
+            appliedEffects[key] = DrunkTierTable.NO_TIER;
+        }
+
+        @Override
+        public void add(int[] appliedEffects, Integer key, int tierIndex) {
+            appliedEffects[key] = tierIndex;
+        }
+    }
+}
@@ -1,47 +1,97 @@
 package com.thlion_.brewery;
 
+import com.hypixel.hytale.assetstore.event.LoadedAssetsEvent;
 import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.component.ResourceType;
 import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
+import com.hypixel.hytale.server.core.asset.type.camera.CameraEffect;
+import com.hypixel.hytale.server.core.asset.type.entityeffect.config.EntityEffect;
+import com.hypixel.hytale.server.core.asset.type.fluid.Fluid;
+import com.hypixel.hytale.server.core.asset.type.item.config.Item;
 import com.hypixel.hytale.server.core.event.events.player.PlayerReadyEvent;
 import com.hypixel.hytale.server.core.modules.interaction.interaction.config.Interaction;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
+import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.hypixel.hytale.server.core.util.Config;
+import com.thlion_.brewery.commands.BreweryCommand;
 import com.thlion_.brewery.commands.BreweryDrunkCommand;
 import com.thlion_.brewery.components.DrunkComponent;
+import com.thlion_.brewery.components.IntoxicatedComponent;
+import com.thlion_.brewery.components.KegComponent;
 import com.thlion_.brewery.config.BreweryConfig;
+import com.thlion_.brewery.config.ConfigWatcher;
 import com.thlion_.brewery.events.BreweryPlayerReadyEvent;
+import com.thlion_.brewery.events.PlayerReadyBuffer;
 import com.thlion_.brewery.interactions.BreweryRefillContainerInteraction;
 import com.thlion_.brewery.interactions.DrunkUpInteraction;
+import com.thlion_.brewery.interactions.KegInteraction;
+import com.thlion_.brewery.jfr.BreweryEvents;
+import com.thlion_.brewery.metrics.BreweryMetrics;
+import com.thlion_.brewery.registry.BrewerySnapshot;
+import com.thlion_.brewery.resources.DrunkLeaderboardResource;
+import com.thlion_.brewery.resources.DrunkTimerResource;
 import com.thlion_.brewery.systems.OnDeathSystem;
+import com.thlion_.brewery.systems.OnInvulnerableSystem;
+import com.thlion_.brewery.systems.OnLeaveSystem;
+import com.thlion_.brewery.systems.OnSleepSystem;
 import com.thlion_.brewery.systems.PlaceBlockSystem;
+import com.thlion_.brewery.systems.PlayerReadySystem;
 import com.thlion_.brewery.systems.SoberUpSystem;
+import com.thlion_.brewery.trace.TraceRecorder;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 @SuppressWarnings("unused")
 public class BreweryPlugin extends JavaPlugin {
     public static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
 
+    private static final String CONFIG_NAME = "BreweryConfig";
+
     private static BreweryPlugin instance;
     private static Config<BreweryConfig> config;
+    // Validated config and its derived tables, swapped as a whole on config or asset reload
+    private static volatile BrewerySnapshot snapshot = BrewerySnapshot.of(new BreweryConfig());
+
+    private final BreweryMetrics metrics = new BreweryMetrics();
+    private final PlayerReadyBuffer playerReadyBuffer = new PlayerReadyBuffer();
 
     private ComponentType<EntityStore, DrunkComponent> drunkComponentType;
+    private ComponentType<EntityStore, IntoxicatedComponent> intoxicatedComponentType;
+    private ComponentType<ChunkStore, KegComponent> kegComponentType;
+    private ResourceType<EntityStore, DrunkTimerResource> drunkTimerResourceType;
+    private ResourceType<EntityStore, DrunkLeaderboardResource> drunkLeaderboardResourceType;
     private SoberUpSystem soberUpSystem;
+    private ConfigWatcher configWatcher;
+    @Nullable
+    private volatile TraceRecorder traceRecorder;
 
     public BreweryPlugin(@Nonnull JavaPluginInit init) {
         super(init);
 
         instance = this;
-        config = this.withConfig("BreweryConfig", BreweryConfig.CODEC);
+        config = this.withConfig(CONFIG_NAME, BreweryConfig.CODEC);
     }
 
     @Override
     protected void setup() {
         super.setup();
 
-        config.save();
+        snapshot = BrewerySnapshot.of(this.loadStartupConfig());
+        BreweryEvents.register();
+
+        try {
+            BreweryEvents.extractSettings(this.getDataDirectory());
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Unable to extract flight recorder profile: %s", e.getMessage());
+        }
 
         var entityStoreRegistry = this.getEntityStoreRegistry();
         var interactionRegistry = this.getCodecRegistry(Interaction.CODEC);
@@ -49,13 +99,35 @@ public class BreweryPlugin extends JavaPlugin {
         // Registering components, core of the mechanic
         this.drunkComponentType = entityStoreRegistry
             .registerComponent(DrunkComponent.class, "DrunkComponent", DrunkComponent.CODEC);
+        this.intoxicatedComponentType = entityStoreRegistry
+            .registerComponent(IntoxicatedComponent.class, IntoxicatedComponent::get);
+
+        // Registering block components, drinks aging in kegs
+        this.kegComponentType = this.getChunkStoreRegistry()
+            .registerComponent(KegComponent.class, "KegComponent", KegComponent.CODEC);
+
+        // Registering resources, per world timers, leaderboard and packet queue of drunk players
+        this.drunkTimerResourceType = entityStoreRegistry
+            .registerResource(DrunkTimerResource.class, DrunkTimerResource::new);
+        this.drunkLeaderboardResourceType = entityStoreRegistry
+            .registerResource(DrunkLeaderboardResource.class, DrunkLeaderboardResource::new);
 
         // Registering systems, used to decrease drunk over time
         this.soberUpSystem = new SoberUpSystem();
 
-        entityStoreRegistry.registerSystem(new OnDeathSystem());
         entityStoreRegistry.registerSystem(this.soberUpSystem);
 
+        // Sleep, death and invulnerability change drunk state once, when they happen
+        entityStoreRegistry.registerSystem(new OnDeathSystem());
+        entityStoreRegistry.registerSystem(new OnSleepSystem());
+        entityStoreRegistry.registerSystem(new OnInvulnerableSystem());
+
+        // Forgets players leaving the world
+        entityStoreRegistry.registerSystem(new OnLeaveSystem());
+
+        // Sets up drunk state of joined players in batches
+        entityStoreRegistry.registerSystem(new PlayerReadySystem());
+
         // Prevents player to place mug with low durability
         entityStoreRegistry.registerSystem(new PlaceBlockSystem());
 
@@ -64,11 +136,144 @@ public class BreweryPlugin extends JavaPlugin {
 
         interactionRegistry.register("Brewery_RefillContainer", BreweryRefillContainerInteraction.class, BreweryRefillContainerInteraction.CODEC);
 
+        interactionRegistry.register("Brewery_Keg", KegInteraction.class, KegInteraction.CODEC);
+
         // Registering events, used to add component
         this.getEventRegistry().registerGlobal(PlayerReadyEvent.class, BreweryPlayerReadyEvent::handle);
 
+        // Resolve drink effects, shake packets and items to asset indices once per (re)load
+        this.getEventRegistry().register(LoadedAssetsEvent.class, EntityEffect.class, this::onAssetsLoaded);
+        this.getEventRegistry().register(LoadedAssetsEvent.class, CameraEffect.class, this::onAssetsLoaded);
+        this.getEventRegistry().register(LoadedAssetsEvent.class, Item.class, this::onAssetsLoaded);
+        this.getEventRegistry().register(LoadedAssetsEvent.class, BlockType.class, BreweryRefillContainerInteraction::onAssetsLoaded);
+        this.getEventRegistry().register(LoadedAssetsEvent.class, Fluid.class, BreweryRefillContainerInteraction::onAssetsLoaded);
+
         // Useful debug command
         this.getCommandRegistry().registerCommand(new BreweryDrunkCommand());
+        this.getCommandRegistry().registerCommand(new BreweryCommand());
+    }
+
+    @Override
+    protected void start() {
+        super.start();
+
+        // Assets may already be loaded before our listeners were registered
+        this.rebuildSnapshot();
+        this.updateTraceRecorder(getConfig());
+
+        if (getConfig().isWatchConfig()) {
+            try {
+                this.configWatcher = new ConfigWatcher(this.getConfigPath(), this::reloadConfig);
+                this.configWatcher.start();
+            } catch (IOException e) {
+                LOGGER.atWarning().log("Unable to watch brewery config: %s", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    protected void shutdown() {
+        super.shutdown();
+
+        if (this.configWatcher != null) {
+            try {
+                this.configWatcher.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        this.closeTraceRecorder();
+    }
+
+    private BreweryConfig loadStartupConfig() {
+        BreweryConfig loaded = config.get();
+
+        try {
+            loaded.validate();
+        } catch (IllegalArgumentException e) {
+            LOGGER.atSevere().log("Invalid brewery config, using defaults: %s", e.getMessage());
+            return new BreweryConfig();
+        }
+
+        // Only write the file when it is missing or lacks newer keys
+        if (!Files.exists(this.getConfigPath()) || loaded.isOutdated()) {
+            config.save();
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Parses and validates the config file off the world threads, then publishes it at once.
+     * Current config is kept if the file is invalid.
+     */
+    public CompletableFuture<BreweryConfig> reloadConfig() {
+        return config.load()
+            .thenApplyAsync(loaded -> {
+                loaded.validate();
+                this.applyConfig(loaded);
+
+                return loaded;
+            })
+            .whenComplete((loaded, throwable) -> {
+                if (throwable != null) {
+                    LOGGER.atWarning().log("Brewery config reload failed: %s", throwable.getMessage());
+                }
+            });
+    }
+
+    private synchronized void applyConfig(@Nonnull BreweryConfig loaded) {
+        // Derived tables depend on the tiers, shake bounds and alcohol overrides.
+        // Drunk players move over to the new snapshot on the next tick of their world, see SoberUpSystem
+        snapshot = BrewerySnapshot.build(loaded, snapshot);
+        this.updateTraceRecorder(loaded);
+    }
+
+    private void onAssetsLoaded(@Nonnull LoadedAssetsEvent<?, ?, ?> event) {
+        this.rebuildSnapshot();
+    }
+
+    /**
+     * Rebuilds derived tables of the current config, serialized with config reloads so neither gets lost.
+     */
+    private synchronized void rebuildSnapshot() {
+        snapshot = BrewerySnapshot.build(snapshot.config(), snapshot);
+    }
+
+    /**
+     * Opens a new trace file when tracing gets enabled, closes the current one when it gets disabled.
+     */
+    private synchronized void updateTraceRecorder(@Nonnull BreweryConfig config) {
+        if (!config.isTraceEnabled()) {
+            this.closeTraceRecorder();
+            return;
+        }
+
+        if (this.traceRecorder != null) return;
+
+        Path path = this.getTraceDirectory().resolve("brewery-" + System.currentTimeMillis() + ".trace");
+        try {
+            this.traceRecorder = new TraceRecorder(path, config.getTraceCapacity());
+            LOGGER.atInfo().log("Recording brewery trace to %s", path);
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Unable to open brewery trace: %s", e.getMessage());
+        }
+    }
+
+    private synchronized void closeTraceRecorder() {
+        TraceRecorder recorder = this.traceRecorder;
+        if (recorder == null) return;
+
+        this.traceRecorder = null;
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Unable to close brewery trace: %s", e.getMessage());
+        }
+    }
+
+    private Path getConfigPath() {
+        return this.getDataDirectory().resolve(CONFIG_NAME + ".json");
     }
 
     public static BreweryPlugin get() {
@@ -76,13 +281,67 @@ public class BreweryPlugin extends JavaPlugin {
     }
 
     public static BreweryConfig getConfig() {
-        return config.get();
+        return snapshot.config();
+    }
+
+    /**
+     * @return config and its derived tables, take it once per call instead of reading the parts separately
+     */
+    @Nonnull
+    public static BrewerySnapshot getSnapshot() {
+        return snapshot;
     }
 
     public ComponentType<EntityStore, DrunkComponent> getDrunkComponentType() {
         return this.drunkComponentType;
     }
 
+    public ComponentType<EntityStore, IntoxicatedComponent> getIntoxicatedComponentType() {
+        return this.intoxicatedComponentType;
+    }
+
+    public ComponentType<ChunkStore, KegComponent> getKegComponentType() {
+        return this.kegComponentType;
+    }
+
+    public ResourceType<EntityStore, DrunkTimerResource> getDrunkTimerResourceType() {
+        return this.drunkTimerResourceType;
+    }
+
+    public ResourceType<EntityStore, DrunkLeaderboardResource> getDrunkLeaderboardResourceType() {
+        return this.drunkLeaderboardResourceType;
+    }
+
+    public PlayerReadyBuffer getPlayerReadyBuffer() {
+        return this.playerReadyBuffer;
+    }
+
+    public BreweryMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * @return directory holding metric dumps
+     */
+    public Path getMetricsDirectory() {
+        return this.getDataDirectory().resolve("metrics");
+    }
+
+    /**
+     * @return directory holding trace files, replayed with the core {@code replay} task
+     */
+    public Path getTraceDirectory() {
+        return this.getDataDirectory().resolve("traces");
+    }
+
+    /**
+     * @return current trace recorder, or {@code null} if tracing is disabled
+     */
+    @Nullable
+    public TraceRecorder getTraceRecorder() {
+        return this.traceRecorder;
+    }
+
     public SoberUpSystem getSoberUpSystem() {
         if (this.soberUpSystem == null) {
             throw new IllegalAccessError("Sober Up system is not setup.");
@@ -0,0 +1,120 @@
+package com.thlion_.brewery.commands;
+
+import com.hypixel.hytale.protocol.GameMode;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractAsyncCommand;
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractCommandCollection;
+import com.thlion_.brewery.BreweryPlugin;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+public class BreweryCommand extends AbstractCommandCollection {
+    public BreweryCommand() {
+        super("brewery", "server.commands.brewery.desc");
+        this.setPermissionGroup(GameMode.Creative);
+        this.addSubCommand(new BreweryReloadCommand());
+        this.addSubCommand(new BreweryStatsCommand());
+    }
+
+    private static class BreweryReloadCommand extends AbstractAsyncCommand {
+        public BreweryReloadCommand() {
+            super("reload", "server.commands.brewery.reload.desc");
+        }
+
+        @Nonnull
+        @Override
+        protected CompletableFuture<Void> executeAsync(@Nonnull CommandContext context) {
+            return BreweryPlugin.get().reloadConfig().handle((config, throwable) -> {
+                if (throwable != null) {
+                    Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+
+                    context.sendMessage(
+                        Message.translation("server.commands.brewery.reload.failed")
+                            .param("error", String.valueOf(cause.getMessage()))
+                    );
+                } else {
+                    context.sendMessage(
+                        Message.translation("server.commands.brewery.reload.success")
+                    );
+                }
+
+                return null;
+            });
+        }
+    }
+
+    private static class BreweryStatsCommand extends AbstractCommandCollection {
+        public BreweryStatsCommand() {
+            super("stats", "server.commands.brewery.stats.desc");
+            this.addSubCommand(new StatsShowCommand());
+            this.addSubCommand(new StatsDumpCommand());
+            this.addSubCommand(new StatsResetCommand());
+        }
+    }
+
+    private static class StatsShowCommand extends AbstractAsyncCommand {
+        public StatsShowCommand() {
+            super("show", "server.commands.brewery.stats.show.desc");
+        }
+
+        @Nonnull
+        @Override
+        protected CompletableFuture<Void> executeAsync(@Nonnull CommandContext context) {
+            for (String line : BreweryPlugin.get().getMetrics().report()) {
+                context.sendMessage(Message.raw(line));
+            }
+
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static class StatsDumpCommand extends AbstractAsyncCommand {
+        public StatsDumpCommand() {
+            super("dump", "server.commands.brewery.stats.dump.desc");
+        }
+
+        @Nonnull
+        @Override
+        protected CompletableFuture<Void> executeAsync(@Nonnull CommandContext context) {
+            return CompletableFuture.runAsync(() -> {
+                BreweryPlugin plugin = BreweryPlugin.get();
+
+                try {
+                    Path file = plugin.getMetrics().dump(plugin.getMetricsDirectory());
+
+                    context.sendMessage(
+                        Message.translation("server.commands.brewery.stats.dump.success")
+                            .param("file", file.toString())
+                    );
+                } catch (IOException e) {
+                    context.sendMessage(
+                        Message.translation("server.commands.brewery.stats.dump.failed")
+                            .param("error", String.valueOf(e.getMessage()))
+                    );
+                }
+            });
+        }
+    }
+
+    private static class StatsResetCommand extends AbstractAsyncCommand {
+        public StatsResetCommand() {
+            super("reset", "server.commands.brewery.stats.reset.desc");
+        }
+
+        @Nonnull
+        @Override
+        protected CompletableFuture<Void> executeAsync(@Nonnull CommandContext context) {
+            BreweryPlugin.get().getMetrics().reset();
+
+            context.sendMessage(
+                Message.translation("server.commands.brewery.stats.reset.success")
+            );
+
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.protocol.GameMode;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.OptionalArg;
 import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
 import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
 import com.hypixel.hytale.server.core.command.system.basecommands.AbstractCommandCollection;
@@ -15,8 +16,11 @@ import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.thlion_.brewery.BreweryPlugin;
 import com.thlion_.brewery.components.DrunkComponent;
+import com.thlion_.brewery.leaderboard.DrunkLeaderboard;
+import com.thlion_.brewery.resources.DrunkLeaderboardResource;
 
 import javax.annotation.Nonnull;
+import java.util.List;
 
 public class BreweryDrunkCommand extends AbstractCommandCollection {
     public BreweryDrunkCommand() {
@@ -25,6 +29,7 @@ public class BreweryDrunkCommand extends AbstractCommandCollection {
         this.addSubCommand(new DrunkSetCommand());
         this.addSubCommand(new DrunkGetCommand());
         this.addSubCommand(new DrunkResetCommand());
+        this.addSubCommand(new DrunkTopCommand());
     }
 
     private boolean setDrunkLevel(
@@ -133,4 +138,54 @@ public class BreweryDrunkCommand extends AbstractCommandCollection {
             );
         }
     }
+
+    private static class DrunkTopCommand extends AbstractPlayerCommand {
+        private static final int DEFAULT_COUNT = 10;
+
+        private final OptionalArg<Integer> count;
+
+        public DrunkTopCommand() {
+            super("top", "server.commands.drunk.top.desc");
+            this.count = this.withOptionalArg("count", "server.commands.drunk.top.arg.count", ArgTypes.INTEGER)
+                .addValidator(Validators.range(1, 100));
+        }
+
+        @Override
+        protected void execute(
+            @Nonnull CommandContext context,
+            @Nonnull Store<EntityStore> store,
+            @Nonnull Ref<EntityStore> ref,
+            @Nonnull PlayerRef playerRef,
+            @Nonnull World world
+        ) {
+            int count = this.count.provided(context) ? this.count.get(context) : DEFAULT_COUNT;
+
+            List<DrunkLeaderboard.Standing<Ref<EntityStore>>> standings = store
+                .getResource(DrunkLeaderboardResource.getResourceType())
+                .top(count);
+
+            if (standings.isEmpty()) {
+                context.sendMessage(
+                    Message.translation("server.commands.drunk.top.empty")
+                );
+                return;
+            }
+
+            context.sendMessage(
+                Message.translation("server.commands.drunk.top.header")
+                    .param("count", standings.size())
+            );
+
+            for (int i = 0; i < standings.size(); i++) {
+                DrunkLeaderboard.Standing<Ref<EntityStore>> standing = standings.get(i);
+
+                context.sendMessage(
+                    Message.translation("server.commands.drunk.top.entry")
+                        .param("rank", i + 1)
+                        .param("name", standing.name())
+                        .param("level", Math.round(standing.drunkLevel() * 10.0F) / 10.0F)
+                );
+            }
+        }
+    }
 }
@@ -7,70 +7,47 @@ import com.hypixel.hytale.component.Component;
 import com.hypixel.hytale.component.ComponentType;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.drunk.DrunkState;
+import com.thlion_.brewery.utils.BreweryClock;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-public class DrunkComponent implements Component<EntityStore> {
+/**
+ * Drunk state of a player, decayed by {@link DrunkState} at the sober up rate configured at its last update.
+ * The update time is persisted as wall clock, so time spent offline is decayed on load too.
+ * Neither the rate nor a pause is persisted, loaded states decay at the current rate.
+ */
+public class DrunkComponent extends DrunkState implements Component<EntityStore> {
     public static final BuilderCodec<DrunkComponent> CODEC;
 
-    public static final float MAX_DRUNK_LEVEL = 100.0F;
-
-    private float drunkLevel;
-    private float elapsedTime;
-    private float effectTime;
-
     public DrunkComponent() {
-        this.drunkLevel = 0.0F;
-        this.elapsedTime = 0.0F;
-        this.effectTime = 0.0F;
+        super(BreweryClock.now(), BreweryPlugin.getConfig().getSoberUpPerSecond());
     }
 
     public DrunkComponent(@Nonnull DrunkComponent other) {
-        this.drunkLevel = other.drunkLevel;
-        // Reset timers on copy to prevent desync during teleportation
-        this.elapsedTime = 0.0F;
-        this.effectTime = 0.0F;
-    }
-
-    public float getElapsedTime() {
-        return this.elapsedTime;
-    }
-
-    public void addElapsedTime(float value) {
-        this.elapsedTime += value;
-    }
-
-    public void setElapsedTime(float value) {
-        this.elapsedTime = value;
-    }
-
-    public float getEffectTime() {
-        return this.effectTime;
+        // Applied state is reset on copy to prevent desync during teleportation
+        super(other);
     }
 
-    public void addEffectTime(float value) {
-        this.effectTime += value;
+    public float getDrunkLevel() {
+        return this.getDrunkLevel(BreweryClock.now());
     }
 
-    public void setEffectTime(float value) {
-        this.effectTime = value;
-    }
-
-    public float getDrunkLevel() {
-        return this.drunkLevel;
+    public float getDrunkLevel(double now) {
+        return this.getLevel(now);
     }
 
     public void setDrunkLevel(float value) {
-        this.drunkLevel = Math.clamp(value, 0.0F, MAX_DRUNK_LEVEL);
+        this.setLevel(value, BreweryClock.now(), BreweryPlugin.getConfig().getSoberUpPerSecond());
     }
 
     public void increaseDrunk(float value) {
-        this.drunkLevel = Math.min(this.drunkLevel + value, MAX_DRUNK_LEVEL);
+        this.increase(value, BreweryClock.now(), BreweryPlugin.getConfig().getSoberUpPerSecond());
     }
 
     public void decreaseDrunk(float value) {
-        this.drunkLevel = Math.max(this.drunkLevel - value, 0.0F);
+        this.increaseDrunk(-value);
     }
 
     @SuppressWarnings("MethodDoesntCallSuperMethod")
@@ -82,10 +59,24 @@ public class DrunkComponent implements Component<EntityStore> {
 
     static {
         CODEC = BuilderCodec.builder(DrunkComponent.class, DrunkComponent::new)
+            .append(
+                new KeyedCodec<>("Level", Codec.SHORT),
+                DrunkComponent::setStoredLevel,
+                DrunkComponent::getStoredLevel
+            )
+            .add()
+            // Float level of older saves, read for migration and never written back
             .append(
                 new KeyedCodec<>("DrunkLevel", Codec.FLOAT),
-                (state, o) -> state.drunkLevel = o,
-                DrunkComponent::getDrunkLevel
+                (state, o) -> state.setStoredLevel(toFixed(o)),
+                state -> null
+            )
+            .add()
+            // Missing in older saves, these are anchored at load time
+            .append(
+                new KeyedCodec<>("LastUpdated", Codec.LONG),
+                (state, o) -> state.setAnchorTime(BreweryClock.fromWallClock(o)),
+                state -> BreweryClock.toWallClock(state.getAnchorTime())
             )
             .add()
             .build();
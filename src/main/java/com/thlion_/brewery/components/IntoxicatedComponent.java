@@ -0,0 +1,34 @@
+package com.thlion_.brewery.components;
+
+import com.hypixel.hytale.component.Component;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+
+import javax.annotation.Nullable;
+
+/**
+ * Marker for players whose drunk level is above zero, kept in sync on every drunk update.
+ * Sleep and death systems query on it, so sober players are filtered out by their archetype.
+ */
+public class IntoxicatedComponent implements Component<EntityStore> {
+    public static final IntoxicatedComponent INSTANCE = new IntoxicatedComponent();
+
+    private IntoxicatedComponent() {
+    }
+
+    public static IntoxicatedComponent get() {
+        return INSTANCE;
+    }
+
+    @SuppressWarnings("MethodDoesntCallSuperMethod")
+    @Nullable
+    @Override
+    public Component<EntityStore> clone() {
+        return INSTANCE;
+    }
+
+    public static ComponentType<EntityStore, IntoxicatedComponent> getComponentType() {
+        return BreweryPlugin.get().getIntoxicatedComponentType();
+    }
+}
@@ -0,0 +1,147 @@
+package com.thlion_.brewery.components;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+import com.hypixel.hytale.component.Component;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
+import com.thlion_.brewery.BreweryPlugin;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Drinks stored in a keg block. Only the fill time is stored, age and quality are
+ * computed from it when the keg is used, so stored kegs never need to tick.
+ */
+public class KegComponent implements Component<ChunkStore> {
+    public static final BuilderCodec<KegComponent> CODEC;
+
+    /**
+     * Item metadata key holding the quality of an aged drink.
+     */
+    public static final String QUALITY_METADATA = "BreweryQuality";
+
+    @Nullable
+    private String contents;
+    private int quantity;
+    // Wall clock, so aging continues while the server is offline
+    private long filledAt;
+
+    public KegComponent() {
+    }
+
+    public KegComponent(@Nonnull KegComponent other) {
+        this.contents = other.contents;
+        this.quantity = other.quantity;
+        this.filledAt = other.filledAt;
+    }
+
+    public boolean isEmpty() {
+        return this.contents == null || this.quantity <= 0;
+    }
+
+    @Nullable
+    public String getContents() {
+        return this.contents;
+    }
+
+    public int getQuantity() {
+        return this.quantity;
+    }
+
+    public long getFilledAt() {
+        return this.filledAt;
+    }
+
+    public boolean canFill(@Nonnull String itemId) {
+        return this.isEmpty() || itemId.equals(this.contents);
+    }
+
+    /**
+     * Adds drinks of the same kind, age of the mix is the weighted mean of both parts.
+     */
+    public void fill(@Nonnull String itemId, int amount, long now) {
+        if (amount <= 0 || !this.canFill(itemId)) return;
+
+        if (this.isEmpty()) {
+            this.contents = itemId;
+            this.quantity = amount;
+            this.filledAt = now;
+            return;
+        }
+
+        long age = Math.max(now - this.filledAt, 0L);
+        long mixedAge = age * this.quantity / (this.quantity + amount);
+
+        this.quantity += amount;
+        this.filledAt = now - mixedAge;
+    }
+
+    /**
+     * @return amount of drinks actually taken
+     */
+    public int take(int amount) {
+        int taken = Math.min(amount, this.quantity);
+        this.quantity -= taken;
+
+        if (this.quantity <= 0) {
+            this.contents = null;
+            this.quantity = 0;
+            this.filledAt = 0L;
+        }
+
+        return taken;
+    }
+
+    public double getAgeSeconds(long now) {
+        if (this.isEmpty()) return 0.0D;
+
+        return Math.max(now - this.filledAt, 0L) / 1000.0D;
+    }
+
+    /**
+     * @param agingTime seconds needed to reach ~63% of the full quality
+     * @return quality in range {@code [0, 1)}, approaching 1 as the drink ages
+     */
+    public float getQuality(long now, float agingTime) {
+        if (this.isEmpty() || agingTime <= 0.0F) return 0.0F;
+
+        return (float) (1.0D - Math.exp(-this.getAgeSeconds(now) / agingTime));
+    }
+
+    @SuppressWarnings("MethodDoesntCallSuperMethod")
+    @Nullable
+    @Override
+    public Component<ChunkStore> clone() {
+        return new KegComponent(this);
+    }
+
+    static {
+        CODEC = BuilderCodec.builder(KegComponent.class, KegComponent::new)
+            .append(
+                new KeyedCodec<>("Contents", Codec.STRING),
+                (keg, o) -> keg.contents = o,
+                KegComponent::getContents
+            )
+            .add()
+            .append(
+                new KeyedCodec<>("Quantity", Codec.INTEGER),
+                (keg, o) -> keg.quantity = o,
+                KegComponent::getQuantity
+            )
+            .add()
+            .append(
+                new KeyedCodec<>("FilledAt", Codec.LONG),
+                (keg, o) -> keg.filledAt = o,
+                KegComponent::getFilledAt
+            )
+            .add()
+            .build();
+    }
+
+    public static ComponentType<ChunkStore, KegComponent> getComponentType() {
+        return BreweryPlugin.get().getKegComponentType();
+    }
+}
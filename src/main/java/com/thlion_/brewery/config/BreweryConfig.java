@@ -3,35 +3,59 @@ package com.thlion_.brewery.config;
 import com.hypixel.hytale.codec.Codec;
 import com.hypixel.hytale.codec.KeyedCodec;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
+import com.hypixel.hytale.codec.codecs.array.ArrayCodec;
 import com.hypixel.hytale.codec.codecs.map.MapCodec;
+import com.hypixel.hytale.codec.validation.Validators;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Immutable once decoded, reloads publish a new instance instead of mutating the current one.
+ */
 public class BreweryConfig {
     public static final BuilderCodec<BreweryConfig> CODEC;
 
+    /**
+     * Bumped whenever keys are added, so outdated files get rewritten on startup.
+     */
+    public static final int CONFIG_VERSION = 5;
+
+    private static final int LEGACY_TIERS = 4;
+
+    // Files written before versioning decode as 0
+    private int configVersion;
+    private boolean watchConfig = false;
     private float soberTickRate = 1.0F;
     private float soberUpPerTick = 0.1F;
     private float cameraDrunkEffectMin = 0.0F;
     private float cameraDrunkEffectMax = 0.012F;
-    private float drunkRequiredTier1 = 1.0F;
-    private float drunkRequiredTier2 = 15.0F;
-    private float drunkRequiredTier3 = 40.0F;
-    private float drunkRequiredTier4 = 70.0F;
-    private Map<String, Float> drunkValues = new HashMap<>();
-
-    public BreweryConfig() {
-        this.drunkValues.put("Brewery_Ale_Mug", 5.5F);
-        this.drunkValues.put("Brewery_Beer_Mug", 9.3F);
-        this.drunkValues.put("Brewery_Berry_Cider_Mug", 5.0F);
-        this.drunkValues.put("Brewery_Caramel_Beer_Mug", 6.0F);
-        this.drunkValues.put("Brewery_Chili_Beer_Mug", 7.3F);
-        this.drunkValues.put("Brewery_Cider_Mug", 6.3F);
-        this.drunkValues.put("Brewery_Kvas_Mug", 1.4F);
-        this.drunkValues.put("Brewery_Pumpkin_Beer_Mug", 7.2F);
-        this.drunkValues.put("Brewery_Vodka_Mug", 16.0F);
-        this.drunkValues.put("Brewery_Wine_Mug", 7.5F);
+    private int cameraShakeBuckets = 16;
+    private int cosmeticPacketsPerTick = 64;
+    private boolean resetDrunkOnDeath = false;
+    private boolean traceEnabled = false;
+    private int traceCapacity = 1_048_576;
+    private DrunkTier[] drunkTiers = defaultDrunkTiers();
+    private boolean drunkTiersDecoded;
+    // Thresholds of the four fixed tiers of files written before DrunkTiers, migrated after decode
+    @Nullable
+    private Float[] legacyTierThresholds;
+    private int kegCapacity = 16;
+    private float kegAgingTime = 7200.0F;
+    private float kegAgedAlcoholBonus = 0.5F;
+    // Overrides the alcohol declared by the item assets
+    private Map<String, Float> drunkValues = Map.of();
+
+    private DrunkTierTable drunkTierTable = this.compileDrunkTierTable();
+
+    public boolean isOutdated() {
+        return this.configVersion < CONFIG_VERSION;
+    }
+
+    public boolean isWatchConfig() {
+        return this.watchConfig;
     }
 
     public float getSoberTickRate() {
@@ -42,6 +66,15 @@ public class BreweryConfig {
         return this.soberUpPerTick;
     }
 
+    /**
+     * @return drunk level lost per second
+     */
+    public float getSoberUpPerSecond() {
+        if (this.soberTickRate <= 0.0F) return 0.0F;
+
+        return this.soberUpPerTick / this.soberTickRate;
+    }
+
     public float getCameraDrunkEffectMin() {
         return this.cameraDrunkEffectMin;
     }
@@ -50,32 +83,174 @@ public class BreweryConfig {
         return this.cameraDrunkEffectMax;
     }
 
-    public float getDrunkRequiredTier1() {
-        return this.drunkRequiredTier1;
+    public int getCameraShakeBuckets() {
+        return this.cameraShakeBuckets;
+    }
+
+    /**
+     * @return camera shake packets each world may send per tick
+     */
+    public int getCosmeticPacketsPerTick() {
+        return this.cosmeticPacketsPerTick;
     }
 
-    public float getDrunkRequiredTier2() {
-        return this.drunkRequiredTier2;
+    /**
+     * @return whether dying sobers the player up, otherwise drunk level is frozen until respawn
+     */
+    public boolean isResetDrunkOnDeath() {
+        return this.resetDrunkOnDeath;
     }
 
-    public float getDrunkRequiredTier3() {
-        return this.drunkRequiredTier3;
+    /**
+     * @return whether brewery events are recorded into a rolling trace file
+     */
+    public boolean isTraceEnabled() {
+        return this.traceEnabled;
     }
 
-    public float getDrunkRequiredTier4() {
-        return this.drunkRequiredTier4;
+    /**
+     * @return records a trace file holds before it rolls over, 32 bytes each
+     */
+    public int getTraceCapacity() {
+        return this.traceCapacity;
     }
 
-    public float getDrunkValue(String id) {
-        return this.drunkValues.getOrDefault(id, 0.0F);
+    public int getKegCapacity() {
+        return this.kegCapacity;
     }
 
+    /**
+     * @return seconds of aging needed to reach ~63% of the full quality
+     */
+    public float getKegAgingTime() {
+        return this.kegAgingTime;
+    }
+
+    /**
+     * @return extra alcohol of a fully aged drink, relative to its base alcohol
+     */
+    public float getKegAgedAlcoholBonus() {
+        return this.kegAgedAlcoholBonus;
+    }
+
+    /**
+     * @return copy of the configured tiers, use {@link #getDrunkTierTable()} on hot paths
+     */
+    public DrunkTier[] getDrunkTiers() {
+        return this.drunkTiers.clone();
+    }
+
+    public DrunkTierTable getDrunkTierTable() {
+        return this.drunkTierTable;
+    }
+
+    /**
+     * @return unmodifiable alcohol overrides by item id
+     */
     public Map<String, Float> getDrunkValues() {
         return this.drunkValues;
     }
 
+    /**
+     * @throws IllegalArgumentException if values can't be used together
+     */
+    public void validate() {
+        if (this.soberTickRate <= 0.0F) {
+            throw new IllegalArgumentException("SoberTickRate must be positive");
+        }
+
+        if (this.soberUpPerTick < 0.0F) {
+            throw new IllegalArgumentException("SoberUpPerTick must not be negative");
+        }
+
+        if (this.cameraDrunkEffectMin > this.cameraDrunkEffectMax) {
+            throw new IllegalArgumentException("CameraDrunkEffectMin is greater than CameraDrunkEffectMax");
+        }
+
+        if (this.kegAgingTime <= 0.0F) {
+            throw new IllegalArgumentException("KegAgingTime must be positive");
+        }
+
+        if (this.kegAgedAlcoholBonus < 0.0F) {
+            throw new IllegalArgumentException("KegAgedAlcoholBonus must not be negative");
+        }
+
+        if (this.drunkTierTable.size() == 0) {
+            throw new IllegalArgumentException("DrunkTiers has no valid tier");
+        }
+
+        for (Map.Entry<String, Float> entry : this.drunkValues.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() < 0.0F) {
+                throw new IllegalArgumentException("FoodValues of " + entry.getKey() + " must not be negative");
+            }
+        }
+    }
+
+    private void setLegacyTierThreshold(int tier, float threshold) {
+        if (this.legacyTierThresholds == null) {
+            this.legacyTierThresholds = new Float[LEGACY_TIERS];
+        }
+
+        this.legacyTierThresholds[tier] = threshold;
+    }
+
+    /**
+     * Maps {@code DrunkRequiredTier1..4} onto the default tier effects, unless the file has {@code DrunkTiers}.
+     */
+    private void migrateLegacyTiers() {
+        Float[] thresholds = this.legacyTierThresholds;
+        this.legacyTierThresholds = null;
+
+        if (thresholds == null || this.drunkTiersDecoded) return;
+
+        DrunkTier[] tiers = defaultDrunkTiers();
+        for (int i = 0; i < tiers.length; i++) {
+            if (thresholds[i] != null) {
+                tiers[i] = new DrunkTier(thresholds[i], tiers[i].getEffect());
+            }
+        }
+
+        this.drunkTiers = tiers;
+    }
+
+    private static DrunkTier[] defaultDrunkTiers() {
+        return new DrunkTier[]{
+            new DrunkTier(1.0F, "Brewery_Drink_Effect_Sober"),
+            new DrunkTier(15.0F, "Brewery_Drink_Effect_Little_Drunk"),
+            new DrunkTier(40.0F, "Brewery_Drink_Effect_Drunk"),
+            new DrunkTier(70.0F, "Brewery_Drink_Effect_Very_Drunk")
+        };
+    }
+
+    private DrunkTierTable compileDrunkTierTable() {
+        float[] thresholds = new float[this.drunkTiers.length];
+        String[] effectIds = new String[this.drunkTiers.length];
+
+        for (int i = 0; i < this.drunkTiers.length; i++) {
+            DrunkTier tier = this.drunkTiers[i];
+            if (tier == null) continue;
+
+            thresholds[i] = tier.getThreshold();
+            effectIds[i] = tier.getEffect();
+        }
+
+        return DrunkTierTable.compile(thresholds, effectIds);
+    }
+
     static {
         CODEC = BuilderCodec.builder(BreweryConfig.class, BreweryConfig::new)
+            .append(
+                new KeyedCodec<>("ConfigVersion", Codec.INTEGER),
+                (config, o) -> config.configVersion = o,
+                config -> CONFIG_VERSION
+            )
+            .add()
+            .append(
+                new KeyedCodec<>("WatchConfig", Codec.BOOLEAN),
+                (config, o) -> config.watchConfig = o,
+                BreweryConfig::isWatchConfig
+            )
+            .add()
             .append(
                 new KeyedCodec<>("SoberTickRate", Codec.FLOAT),
                 (config, o) -> config.soberTickRate = o,
@@ -100,36 +275,144 @@ public class BreweryConfig {
                 BreweryConfig::getCameraDrunkEffectMax
             )
             .add()
+            .append(
+                new KeyedCodec<>("CameraShakeBuckets", Codec.INTEGER),
+                (config, o) -> config.cameraShakeBuckets = o,
+                BreweryConfig::getCameraShakeBuckets
+            )
+            .addValidator(Validators.range(1, 256))
+            .add()
+            .append(
+                new KeyedCodec<>("CosmeticPacketsPerTick", Codec.INTEGER),
+                (config, o) -> config.cosmeticPacketsPerTick = o,
+                BreweryConfig::getCosmeticPacketsPerTick
+            )
+            .addValidator(Validators.range(1, 4096))
+            .add()
+            .append(
+                new KeyedCodec<>("ResetDrunkOnDeath", Codec.BOOLEAN),
+                (config, o) -> config.resetDrunkOnDeath = o,
+                BreweryConfig::isResetDrunkOnDeath
+            )
+            .add()
+            .append(
+                new KeyedCodec<>("TraceEnabled", Codec.BOOLEAN),
+                (config, o) -> config.traceEnabled = o,
+                BreweryConfig::isTraceEnabled
+            )
+            .add()
+            .append(
+                new KeyedCodec<>("TraceCapacity", Codec.INTEGER),
+                (config, o) -> config.traceCapacity = o,
+                BreweryConfig::getTraceCapacity
+            )
+            .addValidator(Validators.range(1024, 16_777_216))
+            .add()
+            .append(
+                new KeyedCodec<>("KegCapacity", Codec.INTEGER),
+                (config, o) -> config.kegCapacity = o,
+                BreweryConfig::getKegCapacity
+            )
+            .addValidator(Validators.range(1, 1024))
+            .add()
+            .append(
+                new KeyedCodec<>("KegAgingTime", Codec.FLOAT),
+                (config, o) -> config.kegAgingTime = o,
+                BreweryConfig::getKegAgingTime
+            )
+            .add()
+            .append(
+                new KeyedCodec<>("KegAgedAlcoholBonus", Codec.FLOAT),
+                (config, o) -> config.kegAgedAlcoholBonus = o,
+                BreweryConfig::getKegAgedAlcoholBonus
+            )
+            .add()
+            .append(
+                new KeyedCodec<>("DrunkTiers", new ArrayCodec<>(DrunkTier.CODEC, DrunkTier[]::new)),
+                (config, o) -> {
+                    config.drunkTiers = o;
+                    config.drunkTiersDecoded = true;
+                },
+                BreweryConfig::getDrunkTiers
+            )
+            .addValidator(Validators.nonNull())
+            .add()
+            // Fixed tiers of older files, read for migration and never written back
             .append(
                 new KeyedCodec<>("DrunkRequiredTier1", Codec.FLOAT),
-                (config, o) -> config.drunkRequiredTier1 = o,
-                BreweryConfig::getDrunkRequiredTier1
+                (config, o) -> config.setLegacyTierThreshold(0, o),
+                config -> null
             )
             .add()
             .append(
                 new KeyedCodec<>("DrunkRequiredTier2", Codec.FLOAT),
-                (config, o) -> config.drunkRequiredTier2 = o,
-                BreweryConfig::getDrunkRequiredTier2
+                (config, o) -> config.setLegacyTierThreshold(1, o),
+                config -> null
             )
             .add()
             .append(
                 new KeyedCodec<>("DrunkRequiredTier3", Codec.FLOAT),
-                (config, o) -> config.drunkRequiredTier3 = o,
-                BreweryConfig::getDrunkRequiredTier3
+                (config, o) -> config.setLegacyTierThreshold(2, o),
+                config -> null
             )
             .add()
             .append(
                 new KeyedCodec<>("DrunkRequiredTier4", Codec.FLOAT),
-                (config, o) -> config.drunkRequiredTier4 = o,
-                BreweryConfig::getDrunkRequiredTier4
+                (config, o) -> config.setLegacyTierThreshold(3, o),
+                config -> null
             )
             .add()
             .append(
                 new KeyedCodec<>("FoodValues", new MapCodec<>(Codec.FLOAT, HashMap::new)),
-                (config, o) -> config.drunkValues = o,
+                (config, o) -> config.drunkValues = Collections.unmodifiableMap(new HashMap<>(o)),
                 BreweryConfig::getDrunkValues
             )
             .add()
+            .afterDecode(config -> {
+                config.migrateLegacyTiers();
+                config.drunkTierTable = config.compileDrunkTierTable();
+            })
             .build();
     }
+
+    public static class DrunkTier {
+        public static final BuilderCodec<DrunkTier> CODEC;
+
+        private float threshold;
+        private String effect;
+
+        public DrunkTier() {
+        }
+
+        public DrunkTier(float threshold, String effect) {
+            this.threshold = threshold;
+            this.effect = effect;
+        }
+
+        public float getThreshold() {
+            return this.threshold;
+        }
+
+        public String getEffect() {
+            return this.effect;
+        }
+
+        static {
+            CODEC = BuilderCodec.builder(DrunkTier.class, DrunkTier::new)
+                .append(
+                    new KeyedCodec<>("Threshold", Codec.FLOAT),
+                    (tier, o) -> tier.threshold = o,
+                    DrunkTier::getThreshold
+                )
+                .add()
+                .append(
+                    new KeyedCodec<>("Effect", Codec.STRING),
+                    (tier, o) -> tier.effect = o,
+                    DrunkTier::getEffect
+                )
+                .addValidator(Validators.nonNull())
+                .add()
+                .build();
+        }
+    }
 }
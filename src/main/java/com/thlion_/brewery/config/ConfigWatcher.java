@@ -0,0 +1,91 @@
+package com.thlion_.brewery.config;
+
+import com.thlion_.brewery.BreweryPlugin;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches the config file and reloads it when it changes on disk.
+ */
+public class ConfigWatcher implements AutoCloseable {
+    // Editors often write a file in several steps, wait for them to settle
+    private static final long DEBOUNCE_MILLIS = 250L;
+
+    private final Path file;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    public ConfigWatcher(@Nonnull Path file, @Nonnull Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        this.file.getParent().register(
+            this.watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY
+        );
+
+        this.thread = new Thread(this::run, "Brewery-ConfigWatcher");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = this.watchService.take();
+                boolean changed = this.isFileChanged(key);
+
+                if (changed) {
+                    Thread.sleep(DEBOUNCE_MILLIS);
+
+                    // Drop the events produced by the same write
+                    WatchKey pending;
+                    while ((pending = this.watchService.poll()) != null) {
+                        pending.pollEvents();
+                        pending.reset();
+                    }
+
+                    this.onChange.run();
+                }
+
+                if (!key.reset()) return;
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher is closed
+        } catch (Exception e) {
+            BreweryPlugin.LOGGER.atWarning().log("Config watcher stopped: %s", e.getMessage());
+        }
+    }
+
+    private boolean isFileChanged(@Nonnull WatchKey key) {
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path && this.file.getFileName().equals(path)) {
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+        this.thread.interrupt();
+    }
+}
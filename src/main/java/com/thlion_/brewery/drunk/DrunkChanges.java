@@ -0,0 +1,80 @@
+package com.thlion_.brewery.drunk;
+
+import com.hypixel.hytale.component.ComponentAccessor;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.server.core.asset.type.entityeffect.config.EntityEffect;
+import com.hypixel.hytale.server.core.entity.effect.EffectControllerComponent;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.components.IntoxicatedComponent;
+import com.thlion_.brewery.metrics.BreweryMetrics;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+
+/**
+ * Effect and {@link IntoxicatedComponent} changes collected while drunk players are processed,
+ * applied in order once the pass is over, so the store is never changed in the middle of it.
+ */
+public class DrunkChanges {
+    private static final byte REMOVE_EFFECT = 0;
+    private static final byte ADD_EFFECT = 1;
+    private static final byte MARK_INTOXICATED = 2;
+    private static final byte UNMARK_INTOXICATED = 3;
+
+    private final ArrayList<Change> changes = new ArrayList<>();
+
+    public void removeEffect(@Nonnull Ref<EntityStore> ref, int effectIndex) {
+        this.changes.add(new Change(REMOVE_EFFECT, ref, effectIndex));
+    }
+
+    public void addEffect(@Nonnull Ref<EntityStore> ref, int effectIndex) {
+        this.changes.add(new Change(ADD_EFFECT, ref, effectIndex));
+    }
+
+    public void setIntoxicated(@Nonnull Ref<EntityStore> ref, boolean intoxicated) {
+        this.changes.add(new Change(intoxicated ? MARK_INTOXICATED : UNMARK_INTOXICATED, ref, -1));
+    }
+
+    /**
+     * Applies and forgets every collected change, players that left meanwhile are skipped.
+     */
+    public void apply(@Nonnull ComponentAccessor<EntityStore> accessor) {
+        if (this.changes.isEmpty()) return;
+
+        BreweryMetrics metrics = BreweryPlugin.get().getMetrics();
+        var intoxicatedType = IntoxicatedComponent.getComponentType();
+
+        for (Change change : this.changes) {
+            Ref<EntityStore> ref = change.ref();
+            if (!ref.isValid()) continue;
+
+            switch (change.type()) {
+                case REMOVE_EFFECT, ADD_EFFECT -> {
+                    EffectControllerComponent effectComponent = accessor.getComponent(ref, EffectControllerComponent.getComponentType());
+                    if (effectComponent == null) continue;
+
+                    if (change.type() == REMOVE_EFFECT) {
+                        effectComponent.removeEffect(ref, change.effectIndex(), accessor);
+                        metrics.getEffectsRemoved().increment();
+                    } else {
+                        EntityEffect drunkEffect = EntityEffect.getAssetMap().getAsset(change.effectIndex());
+                        if (drunkEffect == null) continue;
+
+                        effectComponent.addEffect(ref, drunkEffect, accessor);
+                        metrics.getEffectsAdded().increment();
+                    }
+                }
+                case MARK_INTOXICATED -> accessor.putComponent(ref, intoxicatedType, IntoxicatedComponent.get());
+                case UNMARK_INTOXICATED -> accessor.tryRemoveComponent(ref, intoxicatedType);
+                default -> {
+                }
+            }
+        }
+
+        this.changes.clear();
+    }
+
+    private record Change(byte type, @Nonnull Ref<EntityStore> ref, int effectIndex) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.thlion_.brewery.drunk;
+
+import com.hypixel.hytale.component.ComponentAccessor;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.registry.BrewerySnapshot;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Handed to the {@link DrunkMachine} adapters of a world on every call.
+ *
+ * @param accessor used for reads only, the command buffer while iterating the store
+ * @param snapshot taken once for the whole call
+ * @param changes collects structural changes, applied by the caller once it is done
+ */
+public record DrunkContext(
+    @Nonnull ComponentAccessor<EntityStore> accessor,
+    @Nonnull BrewerySnapshot snapshot,
+    @Nonnull DrunkChanges changes
+) {
+}
@@ -0,0 +1,51 @@
+package com.thlion_.brewery.drunk;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.server.core.entity.effect.ActiveEntityEffect;
+import com.hypixel.hytale.server.core.entity.effect.EffectControllerComponent;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.registry.DrunkEffectRegistry;
+import com.thlion_.brewery.utils.Utils;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Applies drunk tier effects through the {@link EffectControllerComponent} of the entity,
+ * changes are collected into the {@link DrunkChanges} of the context.
+ */
+public class EntityDrunkEffects implements DrunkMachine.Effects<DrunkContext, Ref<EntityStore>> {
+    public static final EntityDrunkEffects INSTANCE = new EntityDrunkEffects();
+
+    @Override
+    public boolean has(@Nonnull DrunkContext context, @Nonnull Ref<EntityStore> ref, int tierIndex) {
+        EffectControllerComponent effectComponent = context.accessor().getComponent(ref, EffectControllerComponent.getComponentType());
+        if (effectComponent == null) return false;
+
+        return Utils.hasActiveEffect(effectComponent, context.snapshot().drunkEffects().getTierEffectIndex(tierIndex));
+    }
+
+    @Override
+    public void clear(@Nonnull DrunkContext context, @Nonnull Ref<EntityStore> ref) {
+        EffectControllerComponent effectComponent = context.accessor().getComponent(ref, EffectControllerComponent.getComponentType());
+        if (effectComponent == null) return;
+
+        ActiveEntityEffect[] entityEffects = effectComponent.getAllActiveEntityEffects();
+        if (entityEffects == null) return;
+
+        DrunkEffectRegistry effectRegistry = context.snapshot().drunkEffects();
+        for (ActiveEntityEffect effect : entityEffects) {
+            int effectIndex = effect.getEntityEffectIndex();
+            if (effectRegistry.isDrunkEffect(effectIndex)) {
+                context.changes().removeEffect(ref, effectIndex);
+            }
+        }
+    }
+
+    @Override
+    public void add(@Nonnull DrunkContext context, @Nonnull Ref<EntityStore> ref, int tierIndex) {
+        int effectIndex = context.snapshot().drunkEffects().getTierEffectIndex(tierIndex);
+        if (effectIndex >= 0) {
+            context.changes().addEffect(ref, effectIndex);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.thlion_.brewery.drunk;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.protocol.Packet;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.components.DrunkComponent;
+import com.thlion_.brewery.trace.BreweryTrace;
+import com.thlion_.brewery.trace.TraceRecord;
+import com.thlion_.brewery.utils.BreweryClock;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Sends prebuilt camera shake packets of the snapshot to the player.
+ */
+public class PlayerShakePackets implements DrunkMachine.Shakes<DrunkContext, Ref<EntityStore>, DrunkComponent> {
+    public static final PlayerShakePackets INSTANCE = new PlayerShakePackets();
+
+    @Override
+    public boolean send(@Nonnull DrunkContext context, @Nonnull Ref<EntityStore> ref, @Nonnull DrunkComponent drunkComponent, int bucket) {
+        if (!ref.isValid()) return false;
+
+        PlayerRef playerRef = context.accessor().getComponent(ref, PlayerRef.getComponentType());
+        Packet packet = context.snapshot().shakePackets().getPacket(bucket);
+        if (playerRef == null || packet == null) return false;
+
+        playerRef.getPacketHandler().writeNoCache(packet);
+        BreweryPlugin.get().getMetrics().getShakePacketsSent().increment();
+
+        float drunkLevel = drunkComponent.getLevel(BreweryClock.now());
+        BreweryTrace.record(context.accessor(), ref, TraceRecord.SHAKE, 0.0F, drunkLevel, bucket);
+
+        return true;
+    }
+}
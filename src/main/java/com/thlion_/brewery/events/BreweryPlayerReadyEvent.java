@@ -5,7 +5,7 @@ import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.server.core.event.events.player.PlayerReadyEvent;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
-import com.thlion_.brewery.components.DrunkComponent;
+import com.thlion_.brewery.BreweryPlugin;
 
 import javax.annotation.Nonnull;
 
@@ -21,22 +21,7 @@ public class BreweryPlayerReadyEvent {
         World world = store.getExternalData().getWorld();
         if (world == null) return;
 
-        world.execute(() -> {
-            try {
-                // Check if component already exists (teleportation case)
-                DrunkComponent existing = store.getComponent(ref, DrunkComponent.getComponentType());
-                
-                if (existing == null) {
-                    // New player - create component
-                    store.ensureComponent(ref, DrunkComponent.getComponentType());
-                } else {
-                    // Existing player (teleportation) - reset timers to prevent desync
-                    existing.setElapsedTime(0.0F);
-                    existing.setEffectTime(0.0F);
-                }
-            } catch (Exception e) {
-                // Silently catch exception - component will be handled on next attempt
-            }
-        });
+        // Drained in batches by PlayerReadySystem
+        BreweryPlugin.get().getPlayerReadyBuffer().enqueue(world, ref);
     }
 }
@@ -0,0 +1,97 @@
+package com.thlion_.brewery.events;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.components.DrunkComponent;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Buffers ready players per world, so a join storm is handled by a single world task
+ * per tick instead of one task per player. Failed players are retried on the next drain.
+ */
+public class PlayerReadyBuffer {
+    private static final int MAX_ATTEMPTS = 5;
+
+    // Keyed by name, so buffers outlive the world instances that filled them
+    private final Map<String, WorldBuffer> buffers = new ConcurrentHashMap<>();
+
+    public void enqueue(@Nonnull World world, @Nonnull Ref<EntityStore> ref) {
+        this.buffers.computeIfAbsent(world.getName(), name -> new WorldBuffer())
+            .pending.offer(new PendingPlayer(ref, 0));
+    }
+
+    /**
+     * Schedules a drain of the world buffer, unless it is empty or a drain is already scheduled.
+     */
+    public void schedule(@Nonnull World world) {
+        WorldBuffer buffer = this.buffers.get(world.getName());
+        if (buffer == null || buffer.pending.isEmpty()) return;
+
+        if (buffer.scheduled.compareAndSet(false, true)) {
+            world.execute(() -> this.drain(world, buffer));
+        }
+    }
+
+    private void drain(@Nonnull World world, @Nonnull WorldBuffer buffer) {
+        try {
+            // Only players queued before the drain, retries wait for the next one
+            int count = buffer.pending.size();
+
+            for (int i = 0; i < count; i++) {
+                PendingPlayer player = buffer.pending.poll();
+                if (player == null) break;
+
+                this.process(world, buffer, player);
+            }
+        } finally {
+            buffer.scheduled.set(false);
+        }
+    }
+
+    private void process(@Nonnull World world, @Nonnull WorldBuffer buffer, @Nonnull PendingPlayer player) {
+        Ref<EntityStore> ref = player.ref;
+        if (!ref.isValid()) return;
+
+        Store<EntityStore> store = ref.getStore();
+        // Player already moved on, its new world gets its own ready event
+        if (store.getExternalData().getWorld() != world) return;
+
+        try {
+            DrunkComponent existing = store.getComponent(ref, DrunkComponent.getComponentType());
+
+            if (existing == null) {
+                // New player - create component
+                store.ensureComponent(ref, DrunkComponent.getComponentType());
+            } else {
+                // Existing player - level already includes the decay since its last update,
+                // apply the matching tier once and reschedule timers in this world to prevent desync
+                BreweryPlugin.get().getSoberUpSystem().updateDrunkEffects(store, ref, null, existing, false);
+            }
+        } catch (Exception e) {
+            int attempts = player.attempts + 1;
+
+            if (attempts < MAX_ATTEMPTS) {
+                buffer.pending.offer(new PendingPlayer(ref, attempts));
+            } else {
+                BreweryPlugin.LOGGER.atWarning().log("Unable to set up drunk state of a player in %s: %s", world.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private record PendingPlayer(Ref<EntityStore> ref, int attempts) {
+    }
+
+    private static class WorldBuffer {
+        private final Queue<PendingPlayer> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+}
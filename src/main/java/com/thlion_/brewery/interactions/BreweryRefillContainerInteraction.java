@@ -1,13 +1,16 @@
 package com.thlion_.brewery.interactions;
 
+import com.hypixel.hytale.assetstore.event.LoadedAssetsEvent;
 import com.hypixel.hytale.codec.Codec;
 import com.hypixel.hytale.codec.KeyedCodec;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
+import com.hypixel.hytale.codec.codecs.EnumCodec;
 import com.hypixel.hytale.codec.codecs.array.ArrayCodec;
 import com.hypixel.hytale.codec.codecs.map.MapCodec;
 import com.hypixel.hytale.codec.validation.Validators;
 import com.hypixel.hytale.component.CommandBuffer;
 import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.math.util.ChunkUtil;
 import com.hypixel.hytale.math.util.MathUtil;
 import com.hypixel.hytale.math.vector.Vector3i;
@@ -25,85 +28,54 @@ import com.hypixel.hytale.server.core.inventory.container.SimpleItemContainer;
 import com.hypixel.hytale.server.core.inventory.transaction.ItemStackSlotTransaction;
 import com.hypixel.hytale.server.core.modules.interaction.interaction.CooldownHandler;
 import com.hypixel.hytale.server.core.modules.interaction.interaction.config.client.SimpleBlockInteraction;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.chunk.section.BlockSection;
 import com.hypixel.hytale.server.core.universe.world.chunk.section.FluidSection;
 import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.jfr.RefillInteractionEvent;
+import com.thlion_.brewery.metrics.BreweryMetrics;
+import com.thlion_.brewery.refill.RefillTable;
+import com.thlion_.brewery.trace.BreweryTrace;
+import com.thlion_.brewery.trace.TraceRecord;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class BreweryRefillContainerInteraction extends SimpleBlockInteraction {
     public static final BuilderCodec<BreweryRefillContainerInteraction> CODEC;
 
+    // Bumped when block or fluid assets are reloaded, since their ids may change
+    private static final AtomicInteger ASSET_GENERATION = new AtomicInteger();
+
     protected Map<String, RefillState> refillStateMap;
     @Nullable
-    protected int[] allowedBlockIds;
-    @Nullable
-    protected int[] allowedFluidIds;
-    @Nullable
-    protected Int2ObjectOpenHashMap<String> blockToState;
-    @Nullable
-    protected Int2ObjectOpenHashMap<String> fluidToState;
-
-    protected int[] getAllowedBlockIds() {
-        if (this.allowedBlockIds == null) {
-            this.allowedBlockIds = this.refillStateMap.values()
-                .stream()
-                .map(RefillState::getAllowedBlocks)
-                .flatMap(Arrays::stream)
-                .mapToInt(key -> BlockType.getAssetMap().getIndex(key))
-                .sorted()
-                .toArray();
-        }
-
-        return this.allowedBlockIds;
-    }
-
-    protected int[] getAllowedFluidIds() {
-        if (this.allowedFluidIds == null) {
-            this.allowedFluidIds = this.refillStateMap.values()
-                .stream()
-                .map(RefillState::getAllowedFluids)
-                .flatMap(Arrays::stream)
-                .mapToInt(key -> Fluid.getAssetMap().getIndex(key))
-                .sorted()
-                .toArray();
-        }
+    private volatile RefillTable<RefillTarget> refillTable;
 
-        return this.allowedFluidIds;
+    public static void onAssetsLoaded(@Nonnull LoadedAssetsEvent<?, ?, ?> event) {
+        ASSET_GENERATION.incrementAndGet();
     }
 
-    protected Int2ObjectMap<String> getBlockToState() {
-        if (this.blockToState == null) {
-            this.blockToState = new Int2ObjectOpenHashMap<>();
-            this.refillStateMap.forEach((s, refillState) -> {
-                for (String key : refillState.getAllowedBlocks()) {
-                    this.blockToState.put(BlockType.getAssetMap().getIndex(key), s);
-                }
-            });
+    /**
+     * @return refill targets compiled for the current asset generation
+     */
+    @Nonnull
+    protected RefillTable<RefillTarget> getRefillTable() {
+        int generation = ASSET_GENERATION.get();
+
+        RefillTable<RefillTarget> table = this.refillTable;
+        if (table == null || table.getGeneration() != generation) {
+            // Racing threads compile equal tables, any of them may be published
+            table = compileRefillTable(this.refillStateMap, generation);
+            this.refillTable = table;
         }
 
-        return this.blockToState;
-    }
-
-    protected Int2ObjectMap<String> getFluidToState() {
-        if (this.fluidToState == null) {
-            this.fluidToState = new Int2ObjectOpenHashMap<>();
-            this.refillStateMap.forEach((s, refillState) -> {
-                for (String key : refillState.getAllowedFluids()) {
-                    this.fluidToState.put(Fluid.getAssetMap().getIndex(key), s);
-                }
-            });
-        }
-
-        return this.fluidToState;
+        return table;
     }
 
     @SuppressWarnings("deprecation")
@@ -129,142 +101,139 @@ public class BreweryRefillContainerInteraction extends SimpleBlockInteraction {
                 return;
             }
 
-            Ref<ChunkStore> section = world.getChunkStore().getChunkSectionReference(
-                ChunkUtil.chunkCoordinate(blockPosition.x),
-                ChunkUtil.chunkCoordinate(blockPosition.y),
-                ChunkUtil.chunkCoordinate(blockPosition.z)
-            );
-            if (section == null) return;
+            RefillInteractionEvent jfrEvent = new RefillInteractionEvent();
+            jfrEvent.begin();
 
-            boolean isProcessed = this.processBlockInteraction(
-                world, commandBuffer, context, section, livingEntity, blockPosition
-            );
+            if (!this.processRefill(world, commandBuffer, context, livingEntity, blockPosition, jfrEvent)) return;
 
-            // TODO: Fix this shit ⚠️⚠️🔥
-            /*
-            if (!isProcessed || context.getState().state == InteractionState.Failed) {
-                context.getState().state = InteractionState.Finished;
+            boolean failed = context.getState().state == InteractionState.Failed;
 
-                this.processFluidInteraction(
-                    world, commandBuffer, context, section, livingEntity, blockPosition
-                );
+            BreweryMetrics metrics = BreweryPlugin.get().getMetrics();
+            if (failed) {
+                metrics.getRefillsFailed().increment();
+            } else {
+                metrics.getRefillsHandled().increment();
+            }
+
+            BreweryTrace.record(commandBuffer, ref, TraceRecord.REFILL, failed ? 0.0F : 1.0F, 0.0F, 0);
+
+            if (jfrEvent.shouldCommit()) {
+                PlayerRef playerRef = commandBuffer.getComponent(ref, PlayerRef.getComponentType());
+                jfrEvent.entity = playerRef != null ? playerRef.getUsername() : null;
+                jfrEvent.item = itemStack != null ? itemStack.getItemId() : null;
+                jfrEvent.succeeded = !failed;
+                jfrEvent.commit();
             }
-             */
         }
     }
 
     @Override
     protected void simulateInteractWithBlock(@Nonnull InteractionType interactionType, @Nonnull InteractionContext interactionContext, @Nullable ItemStack itemStack, @Nonnull World world, @Nonnull Vector3i vector3i) {}
 
-    private boolean processBlockInteraction(
+    /**
+     * Resolves the targeted block and fluid in one pass, the block wins when both can refill.
+     * Item swap and source transform are applied together, followed by a single block update.
+     *
+     * @return {@code false} if the targeted section is not loaded
+     */
+    private boolean processRefill(
         @Nonnull World world,
         @Nonnull CommandBuffer<EntityStore> commandBuffer,
         @Nonnull InteractionContext context,
-        @Nonnull Ref<ChunkStore> section,
         @Nonnull LivingEntity livingEntity,
-        @Nonnull BlockPosition blockPosition
+        @Nonnull BlockPosition blockPosition,
+        @Nonnull RefillInteractionEvent jfrEvent
     ) {
-        InteractionSyncData state = context.getState();
-
-        BlockSection blockSection = section.getStore().getComponent(section, BlockSection.getComponentType());
-        if (blockSection == null) return false;
-
-        int blockId = blockSection.get(blockPosition.x, blockPosition.y, blockPosition.z);
-        int[] allowedBlockIds = this.getAllowedBlockIds();
-        if (allowedBlockIds != null && Arrays.binarySearch(allowedBlockIds, blockId) < 0) {
-            state.state = InteractionState.Failed;
-            return false;
-        }
-
-        String newState = this.getBlockToState().get(blockId);
-        if (newState == null) {
-            state.state = InteractionState.Failed;
-            return false;
-        }
-
-        RefillState refillState = this.refillStateMap.get(newState);
-
-        this.updateItemState(
-            context, commandBuffer, livingEntity, refillState, newState
+        // Phase timings are only taken while a recording has the event enabled
+        boolean timed = jfrEvent.isEnabled();
+        long phaseStart = timed ? System.nanoTime() : 0L;
+
+        Ref<ChunkStore> section = world.getChunkStore().getChunkSectionReference(
+            ChunkUtil.chunkCoordinate(blockPosition.x),
+            ChunkUtil.chunkCoordinate(blockPosition.y),
+            ChunkUtil.chunkCoordinate(blockPosition.z)
         );
+        if (section == null) return false;
 
-        if (refillState != null && refillState.getTransformBlock() != null) {
-            int transformedBlock = BlockType.getBlockIdOrUnknown(
-                refillState.getTransformBlock(), "Unknown block %s", refillState.getTransformBlock()
-            );
+        InteractionSyncData state = context.getState();
+        Store<ChunkStore> chunkStore = section.getStore();
 
-            boolean placed = blockSection.set(
-                blockPosition.x,
-                blockPosition.y,
-                blockPosition.z,
-                transformedBlock
-            );
+        BlockSection blockSection = chunkStore.getComponent(section, BlockSection.getComponentType());
+        FluidSection fluidSection = chunkStore.getComponent(section, FluidSection.getComponentType());
 
-            if (placed) {
-                world.performBlockUpdate(blockPosition.x, blockPosition.y, blockPosition.z);
-            } else {
-                state.state = InteractionState.Failed;
-                return false;
-            }
-        }
+        RefillTable<RefillTarget> refillTable = this.getRefillTable();
 
-        return true;
-    }
+        RefillTarget target = null;
+        boolean fromBlock = false;
 
-    private void processFluidInteraction(
-        @Nonnull World world,
-        @Nonnull CommandBuffer<EntityStore> commandBuffer,
-        @Nonnull InteractionContext context,
-        @Nonnull Ref<ChunkStore> section,
-        @Nonnull LivingEntity livingEntity,
-        @Nonnull BlockPosition blockPosition
-    ) {
-        InteractionSyncData state = context.getState();
+        if (blockSection != null) {
+            int blockId = blockSection.get(blockPosition.x, blockPosition.y, blockPosition.z);
+            target = refillTable.getBlockTarget(blockId);
+            fromBlock = target != null;
+        }
 
-        FluidSection fluidSection = section.getStore().getComponent(section, FluidSection.getComponentType());
-        if (fluidSection == null) return;
+        if (target == null && fluidSection != null) {
+            int fluidId = fluidSection.getFluidId(blockPosition.x, blockPosition.y, blockPosition.z);
+            target = refillTable.getFluidTarget(fluidId);
+        }
 
-        int fluidId = fluidSection.getFluidId(blockPosition.x, blockPosition.y, blockPosition.z);
-        int[] allowedBlockIds = this.getAllowedFluidIds();
-        if (allowedBlockIds != null && Arrays.binarySearch(allowedBlockIds, fluidId) < 0) {
-            state.state = InteractionState.Failed;
-            return;
+        if (timed) {
+            long now = System.nanoTime();
+            jfrEvent.sectionLookup = now - phaseStart;
+            phaseStart = now;
         }
 
-        String newState = this.getFluidToState().get(fluidId);
-        if (newState == null) {
+        if (target == null) {
             state.state = InteractionState.Failed;
-            return;
+            return true;
         }
 
-        RefillState refillState = this.refillStateMap.get(newState);
-
         this.updateItemState(
-            context, commandBuffer, livingEntity, refillState, newState
+            context, commandBuffer, livingEntity, target.refillState(), target.stateName()
         );
 
-        if (refillState != null && refillState.getTransformFluid() != null) {
-            int transformedFluid = Fluid.getFluidIdOrUnknown(
-                refillState.getTransformFluid(), "Unknown fluid %s", refillState.getTransformFluid()
-            );
+        if (timed) {
+            long now = System.nanoTime();
+            jfrEvent.refillState = target.stateName();
+            jfrEvent.itemSwap = now - phaseStart;
+            phaseStart = now;
+        }
+
+        // Source is left untouched if the container could not be refilled
+        if (state.state == InteractionState.Failed) return true;
+
+        boolean placed;
+        if (fromBlock) {
+            if (target.transformBlockId() == RefillTarget.NO_TRANSFORM) return true;
 
-            Fluid fluidAsset = Fluid.getAssetMap().getAsset(transformedFluid);
-            assert fluidAsset != null;
+            placed = blockSection.set(
+                blockPosition.x,
+                blockPosition.y,
+                blockPosition.z,
+                target.transformBlockId()
+            );
+        } else {
+            if (target.transformFluidId() == RefillTarget.NO_TRANSFORM) return true;
 
-            boolean placed = fluidSection.setFluid(
+            placed = fluidSection.setFluid(
                 blockPosition.x,
                 blockPosition.y,
                 blockPosition.z,
-                transformedFluid,
-                (byte) fluidAsset.getMaxFluidLevel()
+                target.transformFluidId(),
+                target.transformFluidLevel()
             );
+        }
 
-            if (placed) {
-                world.performBlockUpdate(blockPosition.x, blockPosition.y, blockPosition.z);
-            } else {
-                state.state = InteractionState.Failed;
-            }
+        if (placed) {
+            world.performBlockUpdate(blockPosition.x, blockPosition.y, blockPosition.z);
+        } else {
+            state.state = InteractionState.Failed;
         }
+
+        if (timed) {
+            jfrEvent.blockTransform = System.nanoTime() - phaseStart;
+        }
+        return true;
     }
 
     private void updateItemState(
@@ -309,6 +278,11 @@ public class BreweryRefillContainerInteraction extends SimpleBlockInteraction {
                 context.setHeldItem(newItem);
             }
         } else {
+            if (refillState != null && refillState.getBulkRefill() != BulkRefill.None) {
+                this.bulkRefillItems(context, commandBuffer, livingEntity, refillState, newItemAsset);
+                return;
+            }
+
             ItemStackSlotTransaction removeEmptyTransaction = itemContainer
                 .removeItemStackFromSlot(context.getHeldItemSlot(), currentItem, 1);
 
@@ -345,6 +319,85 @@ public class BreweryRefillContainerInteraction extends SimpleBlockInteraction {
         }
     }
 
+    /**
+     * Refills every matching empty container at once: the held stack, plus the matching hotbar stacks
+     * in {@link BulkRefill#Hotbar} mode. Each slot is swapped in place by a single transaction,
+     * so no container is removed before its refilled stack is added.
+     */
+    private void bulkRefillItems(
+        @Nonnull InteractionContext context,
+        @Nonnull CommandBuffer<EntityStore> commandBuffer,
+        @Nonnull LivingEntity livingEntity,
+        @Nonnull RefillState refillState,
+        @Nonnull Item newItemAsset
+    ) {
+        Ref<EntityStore> ref = context.getEntity();
+        InteractionSyncData state = context.getState();
+
+        ItemStack currentItem = context.getHeldItem();
+        assert currentItem != null;
+
+        ItemContainer heldContainer = context.getHeldItemContainer();
+        assert heldContainer != null;
+
+        ItemStack refilledContainer = new ItemStack(newItemAsset.getId(), 1);
+        if (refillState.durability >= 0.0D) {
+            refilledContainer = refilledContainer.withDurability(refillState.durability);
+        }
+
+        int maxStack = Math.max(1, newItemAsset.getMaxStack());
+        short heldSlot = context.getHeldItemSlot();
+
+        // Held slot goes first in every mode, it may be outside the hotbar, for example the utility slot
+        int overflow = swapSlot(heldContainer, heldSlot, currentItem.getQuantity(), refilledContainer, maxStack);
+        if (overflow < 0) {
+            state.state = InteractionState.Failed;
+            return;
+        }
+
+        if (refillState.getBulkRefill() == BulkRefill.Hotbar) {
+            ItemContainer hotbar = livingEntity.getInventory().getHotbar();
+
+            for (short slot = 0; slot < hotbar.getCapacity(); slot++) {
+                if (hotbar == heldContainer && slot == heldSlot) continue;
+
+                ItemStack itemStack = hotbar.getItemStack(slot);
+                // Same equality the container transactions use, so only identical containers are swapped
+                if (itemStack == null || !itemStack.isStackableWith(currentItem)) continue;
+
+                int remaining = swapSlot(hotbar, slot, itemStack.getQuantity(), refilledContainer, maxStack);
+                if (remaining > 0) overflow += remaining;
+            }
+        }
+
+        ItemContainer combined = livingEntity.getInventory().getCombinedHotbarFirst();
+        while (overflow > 0) {
+            int quantity = Math.min(overflow, maxStack);
+            SimpleItemContainer.addOrDropItemStack(commandBuffer, ref, combined, refilledContainer.withQuantity(quantity));
+            overflow -= quantity;
+        }
+
+        context.setHeldItem(heldContainer.getItemStack(heldSlot));
+    }
+
+    /**
+     * Replaces the empty containers in a slot with refilled ones, capped at the refilled max stack.
+     *
+     * @return refilled containers that did not fit into the slot, or {@code -1} if the slot was left untouched
+     */
+    private static int swapSlot(
+        @Nonnull ItemContainer container,
+        short slot,
+        int quantity,
+        @Nonnull ItemStack refilledContainer,
+        int maxStack
+    ) {
+        int kept = Math.min(quantity, maxStack);
+        if (!container.setItemStackForSlot(slot, refilledContainer.withQuantity(kept)).succeeded()) return -1;
+
+        return quantity - kept;
+    }
+
     static {
         CODEC = BuilderCodec.builder(BreweryRefillContainerInteraction.class, BreweryRefillContainerInteraction::new, SimpleBlockInteraction.CODEC)
             .appendInherited(
@@ -355,16 +408,78 @@ public class BreweryRefillContainerInteraction extends SimpleBlockInteraction {
             )
             .addValidator(Validators.nonNull())
             .add()
-            .afterDecode(interaction -> {
-                interaction.allowedBlockIds = null;
-                interaction.allowedFluidIds = null;
-
-                interaction.blockToState = null;
-                interaction.fluidToState = null;
-            })
+            .afterDecode(interaction -> interaction.refillTable = null)
             .build();
     }
 
+    /**
+     * Resolved refill of a single block or fluid id.
+     */
+    protected record RefillTarget(
+        @Nonnull String stateName,
+        @Nonnull RefillState refillState,
+        int transformBlockId,
+        int transformFluidId,
+        byte transformFluidLevel
+    ) {
+        public static final int NO_TRANSFORM = Integer.MIN_VALUE;
+    }
+
+    @Nonnull
+    private static RefillTable<RefillTarget> compileRefillTable(@Nonnull Map<String, RefillState> refillStates, int generation) {
+        RefillTable.Builder<RefillTarget> builder = RefillTable.builder(
+            BlockType.getAssetMap()::getIndex,
+            Fluid.getAssetMap()::getIndex
+        );
+
+        refillStates.forEach((stateName, refillState) -> builder.add(
+            refillState.getAllowedBlocks(),
+            refillState.getAllowedFluids(),
+            resolveTarget(stateName, refillState)
+        ));
+
+        return builder.build(generation);
+    }
+
+    @Nonnull
+    private static RefillTarget resolveTarget(@Nonnull String stateName, @Nonnull RefillState refillState) {
+        int transformBlockId = RefillTarget.NO_TRANSFORM;
+        if (refillState.getTransformBlock() != null) {
+            transformBlockId = BlockType.getBlockIdOrUnknown(
+                refillState.getTransformBlock(), "Unknown block %s", refillState.getTransformBlock()
+            );
+        }
+
+        int transformFluidId = RefillTarget.NO_TRANSFORM;
+        byte transformFluidLevel = 0;
+        if (refillState.getTransformFluid() != null) {
+            transformFluidId = Fluid.getFluidIdOrUnknown(
+                refillState.getTransformFluid(), "Unknown fluid %s", refillState.getTransformFluid()
+            );
+
+            Fluid fluidAsset = Fluid.getAssetMap().getAsset(transformFluidId);
+            if (fluidAsset != null) {
+                transformFluidLevel = (byte) fluidAsset.getMaxFluidLevel();
+            } else {
+                transformFluidId = RefillTarget.NO_TRANSFORM;
+            }
+        }
+
+        return new RefillTarget(stateName, refillState, transformBlockId, transformFluidId, transformFluidLevel);
+    }
+
+    /**
+     * Which empty containers a single refill converts.
+     */
+    public enum BulkRefill {
+        // Only one container of the held stack
+        None,
+        // The whole held stack
+        Stack,
+        // Every matching container in the hotbar
+        Hotbar
+    }
+
     protected static class RefillState {
         public static final BuilderCodec<RefillState> CODEC;
 
@@ -376,6 +491,8 @@ public class BreweryRefillContainerInteraction extends SimpleBlockInteraction {
 
         protected double durability = -1.0D;
 
+        protected BulkRefill bulkRefill = BulkRefill.None;
+
         public String[] getAllowedBlocks() {
             return this.allowedBlocks;
         }
@@ -396,6 +513,10 @@ public class BreweryRefillContainerInteraction extends SimpleBlockInteraction {
             return this.durability;
         }
 
+        public BulkRefill getBulkRefill() {
+            return this.bulkRefill;
+        }
+
         static {
             CODEC = BuilderCodec.builder(RefillState.class, RefillState::new)
                 // Allowed blocks, used to determinate on which blocks can be used
@@ -435,6 +556,14 @@ public class BreweryRefillContainerInteraction extends SimpleBlockInteraction {
                     RefillState::getDurability
                 ).add()
 
+                .append(
+                    new KeyedCodec<>("BulkRefill", new EnumCodec<>(BulkRefill.class)),
+                    (interaction, o) -> interaction.bulkRefill = o,
+                    RefillState::getBulkRefill
+                )
+                .addValidator(Validators.nonNull())
+                .add()
+
                 .build();
         }
     }
@@ -1,8 +1,9 @@
 package com.thlion_.brewery.interactions;
 
+import com.hypixel.hytale.codec.Codec;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
+import com.hypixel.hytale.component.CommandBuffer;
 import com.hypixel.hytale.component.Ref;
-import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.protocol.InteractionState;
 import com.hypixel.hytale.protocol.InteractionType;
 import com.hypixel.hytale.server.core.entity.InteractionContext;
@@ -14,6 +15,10 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.thlion_.brewery.BreweryPlugin;
 import com.thlion_.brewery.components.DrunkComponent;
+import com.thlion_.brewery.components.KegComponent;
+import com.thlion_.brewery.registry.BrewerySnapshot;
+import com.thlion_.brewery.trace.BreweryTrace;
+import com.thlion_.brewery.trace.TraceRecord;
 
 import javax.annotation.Nonnull;
 
@@ -27,21 +32,34 @@ public class DrunkUpInteraction extends SimpleInstantInteraction {
         @Nonnull CooldownHandler cooldownHandler
     ) {
         Ref<EntityStore> ref = context.getEntity();
-        Store<EntityStore> store = ref.getStore();
+        CommandBuffer<EntityStore> commandBuffer = context.getCommandBuffer();
+        if (commandBuffer == null) return;
 
         ItemStack itemStack = context.getHeldItem();
         if (itemStack == null) return;
 
-        String itemId = itemStack.getItemId();
-
-        PlayerRef playerRef = store.getComponent(ref, PlayerRef.getComponentType());
-        DrunkComponent drunkComponent = store.getComponent(ref, DrunkComponent.getComponentType());
+        PlayerRef playerRef = commandBuffer.getComponent(ref, PlayerRef.getComponentType());
+        DrunkComponent drunkComponent = commandBuffer.getComponent(ref, DrunkComponent.getComponentType());
         if (playerRef == null || drunkComponent == null) return;
 
-        float drunkValue = BreweryPlugin.getConfig().getDrunkValue(itemId);
+        BrewerySnapshot snapshot = BreweryPlugin.getSnapshot();
+        float drunkValue = snapshot.items().getAlcohol(itemStack.getItemId());
+
+        // Drinks aged in a keg are stronger
+        Float quality = itemStack.getFromMetadataOrNull(KegComponent.QUALITY_METADATA, Codec.FLOAT);
+        if (quality != null) {
+            drunkValue *= 1.0F + snapshot.config().getKegAgedAlcoholBonus() * quality;
+        }
 
         drunkComponent.increaseDrunk(drunkValue);
-        BreweryPlugin.get().getSoberUpSystem().updateDrunkEffects(store, ref, playerRef, drunkComponent, true);
+
+        // Recorded before the transition it may cause
+        BreweryTrace.record(
+            commandBuffer, ref, TraceRecord.DRINK,
+            drunkValue, drunkComponent.getDrunkLevel(), snapshot.items().getIndex(itemStack.getItemId())
+        );
+
+        BreweryPlugin.get().getSoberUpSystem().updateDrunkEffects(commandBuffer, ref, playerRef, drunkComponent, true);
 
         context.getState().state = InteractionState.Finished;
     }
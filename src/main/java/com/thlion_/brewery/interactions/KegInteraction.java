@@ -0,0 +1,182 @@
+package com.thlion_.brewery.interactions;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import com.hypixel.hytale.math.vector.Vector3i;
+import com.hypixel.hytale.protocol.InteractionState;
+import com.hypixel.hytale.protocol.InteractionSyncData;
+import com.hypixel.hytale.protocol.InteractionType;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.entity.Entity;
+import com.hypixel.hytale.server.core.entity.EntityUtils;
+import com.hypixel.hytale.server.core.entity.InteractionContext;
+import com.hypixel.hytale.server.core.entity.LivingEntity;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+import com.hypixel.hytale.server.core.inventory.container.SimpleItemContainer;
+import com.hypixel.hytale.server.core.modules.interaction.interaction.CooldownHandler;
+import com.hypixel.hytale.server.core.modules.interaction.interaction.config.client.SimpleBlockInteraction;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.chunk.WorldChunk;
+import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.components.KegComponent;
+import com.thlion_.brewery.config.BreweryConfig;
+import com.thlion_.brewery.registry.BrewerySnapshot;
+import com.thlion_.brewery.registry.ItemClassifier;
+import com.thlion_.brewery.registry.ItemRegistry;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Stores held drinks in a keg, or takes a single aged drink out of it.
+ */
+public class KegInteraction extends SimpleBlockInteraction {
+    public static final BuilderCodec<KegInteraction> CODEC;
+
+    @Override
+    protected void interactWithBlock(
+        @Nonnull World world,
+        @Nonnull CommandBuffer<EntityStore> commandBuffer,
+        @Nonnull InteractionType interactionType,
+        @Nonnull InteractionContext context,
+        @Nullable ItemStack itemStack,
+        @Nonnull Vector3i targetBlock,
+        @Nonnull CooldownHandler cooldownHandler
+    ) {
+        InteractionSyncData state = context.getState();
+
+        Ref<EntityStore> ref = context.getEntity();
+        Entity entity = EntityUtils.getEntity(ref, commandBuffer);
+        PlayerRef playerRef = commandBuffer.getComponent(ref, PlayerRef.getComponentType());
+        if (!(entity instanceof LivingEntity livingEntity) || playerRef == null) return;
+
+        WorldChunk chunk = world.getChunkIfInMemory(ChunkUtil.indexChunkFromBlock(targetBlock.x, targetBlock.z));
+        if (chunk == null) return;
+
+        Ref<ChunkStore> blockRef = chunk.getBlockComponentEntity(targetBlock.x, targetBlock.y, targetBlock.z);
+        if (blockRef == null) {
+            state.state = InteractionState.Failed;
+            return;
+        }
+
+        Store<ChunkStore> chunkStore = world.getChunkStore().getStore();
+        KegComponent keg = chunkStore.getComponent(blockRef, KegComponent.getComponentType());
+        if (keg == null) {
+            state.state = InteractionState.Failed;
+            return;
+        }
+
+        BrewerySnapshot snapshot = BreweryPlugin.getSnapshot();
+        BreweryConfig config = snapshot.config();
+        long now = System.currentTimeMillis();
+
+        boolean changed = this.isStorableDrink(itemStack, snapshot.items())
+            ? this.storeDrinks(context, playerRef, keg, itemStack, config, now)
+            : this.takeDrink(commandBuffer, ref, livingEntity, playerRef, keg, config, now);
+
+        if (changed) {
+            chunk.markNeedsSaving();
+        } else {
+            state.state = InteractionState.Failed;
+        }
+    }
+
+    @Override
+    protected void simulateInteractWithBlock(@Nonnull InteractionType interactionType, @Nonnull InteractionContext interactionContext, @Nullable ItemStack itemStack, @Nonnull World world, @Nonnull Vector3i vector3i) {}
+
+    private boolean isStorableDrink(@Nullable ItemStack itemStack, @Nonnull ItemRegistry items) {
+        if (itemStack == null) return false;
+
+        // Only untouched drinks, aged ones are taken out for good
+        return items.getItemClass(itemStack.getItemId()) == ItemClassifier.CLASS_BREWERY_DRINK
+            && itemStack.getDurability() == itemStack.getMaxDurability()
+            && itemStack.getFromMetadataOrNull(KegComponent.QUALITY_METADATA, Codec.FLOAT) == null;
+    }
+
+    private boolean storeDrinks(
+        @Nonnull InteractionContext context,
+        @Nonnull PlayerRef playerRef,
+        @Nonnull KegComponent keg,
+        @Nonnull ItemStack itemStack,
+        @Nonnull BreweryConfig config,
+        long now
+    ) {
+        ItemContainer heldContainer = context.getHeldItemContainer();
+        if (heldContainer == null || !keg.canFill(itemStack.getItemId())) return false;
+
+        int amount = Math.min(itemStack.getQuantity(), config.getKegCapacity() - keg.getQuantity());
+        if (amount <= 0) {
+            playerRef.sendMessage(Message.translation("server.brewery.keg.full"));
+            return false;
+        }
+
+        if (!heldContainer.removeItemStackFromSlot(context.getHeldItemSlot(), itemStack, amount).succeeded()) {
+            return false;
+        }
+
+        context.setHeldItem(heldContainer.getItemStack(context.getHeldItemSlot()));
+        keg.fill(itemStack.getItemId(), amount, now);
+
+        playerRef.sendMessage(
+            Message.translation("server.brewery.keg.stored")
+                .param("amount", amount)
+                .param("quantity", keg.getQuantity())
+                .param("capacity", config.getKegCapacity())
+        );
+
+        return true;
+    }
+
+    private boolean takeDrink(
+        @Nonnull CommandBuffer<EntityStore> commandBuffer,
+        @Nonnull Ref<EntityStore> ref,
+        @Nonnull LivingEntity livingEntity,
+        @Nonnull PlayerRef playerRef,
+        @Nonnull KegComponent keg,
+        @Nonnull BreweryConfig config,
+        long now
+    ) {
+        String contents = keg.getContents();
+        if (keg.isEmpty() || contents == null) {
+            playerRef.sendMessage(Message.translation("server.brewery.keg.empty"));
+            return false;
+        }
+
+        float quality = keg.getQuality(now, config.getKegAgingTime());
+        long ageMinutes = (long) (keg.getAgeSeconds(now) / 60.0D);
+
+        keg.take(1);
+
+        ItemStack agedDrink = new ItemStack(contents, 1)
+            .withMetadata(KegComponent.QUALITY_METADATA, Codec.FLOAT, quality);
+
+        SimpleItemContainer.addOrDropItemStack(
+            commandBuffer,
+            ref,
+            livingEntity.getInventory().getCombinedHotbarFirst(),
+            agedDrink
+        );
+
+        playerRef.sendMessage(
+            Message.translation("server.brewery.keg.taken")
+                .param("age", ageMinutes)
+                .param("quality", Math.round(quality * 100.0F))
+                .param("quantity", keg.getQuantity())
+        );
+
+        return true;
+    }
+
+    static {
+        CODEC = BuilderCodec.builder(KegInteraction.class, KegInteraction::new, SimpleBlockInteraction.CODEC)
+            .build();
+    }
+}
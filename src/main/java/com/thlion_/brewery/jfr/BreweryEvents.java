@@ -0,0 +1,48 @@
+package com.thlion_.brewery.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Flight recorder events of the brewery, all disabled unless enabled by a recording,
+ * for example with the bundled {@code brewery.jfc} profile.
+ */
+public class BreweryEvents {
+    public static final String SETTINGS_NAME = "brewery.jfc";
+
+    /**
+     * Registers the events up front, so recordings can enable them before the first commit.
+     */
+    public static void register() {
+        FlightRecorder.register(SoberUpTickEvent.class);
+        FlightRecorder.register(DrunkTransitionEvent.class);
+        FlightRecorder.register(RefillInteractionEvent.class);
+        FlightRecorder.register(PlaceBlockCheckEvent.class);
+    }
+
+    /**
+     * Copies the bundled profile into the given directory, since the JVM only reads it from a file.
+     * An existing profile is kept, so local edits survive restarts.
+     *
+     * @return path of the profile
+     */
+    @Nonnull
+    public static Path extractSettings(@Nonnull Path directory) throws IOException {
+        Path target = directory.resolve(SETTINGS_NAME);
+        if (Files.exists(target)) return target;
+
+        try (InputStream input = BreweryEvents.class.getResourceAsStream("/" + SETTINGS_NAME)) {
+            if (input == null) throw new IOException("Missing bundled " + SETTINGS_NAME);
+
+            Files.createDirectories(directory);
+            Files.copy(input, target);
+        }
+
+        return target;
+    }
+}
@@ -0,0 +1,36 @@
+package com.thlion_.brewery.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Drunk tier change of a player, including the effect swap.
+ */
+@Name("com.thlion_.brewery.DrunkTransition")
+@Label("Drunk Transition")
+@Category({"Brewery", "Systems"})
+@Description("Drunk effects replaced after the drunk tier of a player changed")
+@Enabled(false)
+@StackTrace(false)
+public class DrunkTransitionEvent extends Event {
+    @Label("Entity")
+    public String entity;
+
+    @Label("Effect")
+    @Description("Effect applied by the new tier, empty when sober")
+    public String effect;
+
+    @Label("From Tier")
+    public int fromTier;
+
+    @Label("To Tier")
+    public int toTier;
+
+    @Label("Drunk Level")
+    public float drunkLevel;
+}
@@ -0,0 +1,29 @@
+package com.thlion_.brewery.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Placement checked by {@code PlaceBlockSystem}.
+ */
+@Name("com.thlion_.brewery.PlaceBlockCheck")
+@Label("Place Block Check")
+@Category({"Brewery", "Systems"})
+@Description("Block placement checked for partially consumed drinks")
+@Enabled(false)
+@StackTrace(false)
+public class PlaceBlockCheckEvent extends Event {
+    @Label("Entity")
+    public String entity;
+
+    @Label("Item")
+    public String item;
+
+    @Label("Cancelled")
+    public boolean cancelled;
+}
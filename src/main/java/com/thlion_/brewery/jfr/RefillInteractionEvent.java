@@ -0,0 +1,45 @@
+package com.thlion_.brewery.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Single refill interaction, split into its phases.
+ */
+@Name("com.thlion_.brewery.RefillInteraction")
+@Label("Refill Interaction")
+@Category({"Brewery", "Interactions"})
+@Description("Container refilled from a block or fluid")
+@Enabled(false)
+@StackTrace(false)
+public class RefillInteractionEvent extends Event {
+    @Label("Entity")
+    public String entity;
+
+    @Label("Item")
+    public String item;
+
+    @Label("Refill State")
+    public String refillState;
+
+    @Label("Section Lookup")
+    @Timespan(Timespan.NANOSECONDS)
+    public long sectionLookup;
+
+    @Label("Item Swap")
+    @Timespan(Timespan.NANOSECONDS)
+    public long itemSwap;
+
+    @Label("Block Transform")
+    @Timespan(Timespan.NANOSECONDS)
+    public long blockTransform;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
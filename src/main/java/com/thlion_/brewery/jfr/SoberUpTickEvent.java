@@ -0,0 +1,30 @@
+package com.thlion_.brewery.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Single {@code SoberUpSystem} tick of a world.
+ */
+@Name("com.thlion_.brewery.SoberUpTick")
+@Label("Sober Up Tick")
+@Category({"Brewery", "Systems"})
+@Description("Due drunk timers processed and shake packets flushed by a world tick")
+@Enabled(false)
+@StackTrace(false)
+public class SoberUpTickEvent extends Event {
+    @Label("World")
+    public String world;
+
+    @Label("Entities")
+    @Description("Drunk entities with due timers")
+    public int entities;
+
+    @Label("Shake Packets")
+    public int shakePackets;
+}
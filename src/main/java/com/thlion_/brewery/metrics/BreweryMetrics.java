@@ -0,0 +1,140 @@
+package com.thlion_.brewery.metrics;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime counters of the brewery systems, cheap enough to stay always on.
+ */
+public class BreweryMetrics {
+    private final Map<String, LatencyHistogram> soberUpTickTime = new ConcurrentHashMap<>();
+
+    private final LongAdder timersFired = new LongAdder();
+    private final LongAdder drunkEntitiesVisited = new LongAdder();
+    private final LongAdder effectsAdded = new LongAdder();
+    private final LongAdder effectsRemoved = new LongAdder();
+    private final LongAdder shakePacketsSent = new LongAdder();
+    private final LongAdder refillsHandled = new LongAdder();
+    private final LongAdder refillsFailed = new LongAdder();
+    private final LongAdder placeBlockEvents = new LongAdder();
+    private final LongAdder placeBlockCancelled = new LongAdder();
+
+    private volatile long since = System.currentTimeMillis();
+
+    @Nonnull
+    public LatencyHistogram getSoberUpTickTime(@Nonnull String worldName) {
+        return this.soberUpTickTime.computeIfAbsent(worldName, name -> new LatencyHistogram());
+    }
+
+    @Nonnull
+    public LongAdder getTimersFired() {
+        return this.timersFired;
+    }
+
+    @Nonnull
+    public LongAdder getDrunkEntitiesVisited() {
+        return this.drunkEntitiesVisited;
+    }
+
+    @Nonnull
+    public LongAdder getEffectsAdded() {
+        return this.effectsAdded;
+    }
+
+    @Nonnull
+    public LongAdder getEffectsRemoved() {
+        return this.effectsRemoved;
+    }
+
+    @Nonnull
+    public LongAdder getShakePacketsSent() {
+        return this.shakePacketsSent;
+    }
+
+    @Nonnull
+    public LongAdder getRefillsHandled() {
+        return this.refillsHandled;
+    }
+
+    @Nonnull
+    public LongAdder getRefillsFailed() {
+        return this.refillsFailed;
+    }
+
+    @Nonnull
+    public LongAdder getPlaceBlockEvents() {
+        return this.placeBlockEvents;
+    }
+
+    @Nonnull
+    public LongAdder getPlaceBlockCancelled() {
+        return this.placeBlockCancelled;
+    }
+
+    /**
+     * @return human readable report, one metric per line
+     */
+    @Nonnull
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        lines.add("Brewery metrics since " + Instant.ofEpochMilli(this.since));
+
+        new TreeMap<>(this.soberUpTickTime).forEach((worldName, histogram) -> lines.add(String.format(
+            "SoberUp tick [%s]: count=%d mean=%.1fus p50<=%.1fus p99<=%.1fus max=%.1fus",
+            worldName,
+            histogram.getCount(),
+            histogram.getMeanNanos() / 1000.0D,
+            histogram.getPercentileNanos(0.50D) / 1000.0D,
+            histogram.getPercentileNanos(0.99D) / 1000.0D,
+            histogram.getMaxNanos() / 1000.0D
+        )));
+
+        lines.add("Timers fired: " + this.timersFired.sum() + ", drunk entities visited: " + this.drunkEntitiesVisited.sum());
+        lines.add("Effects added: " + this.effectsAdded.sum() + ", removed: " + this.effectsRemoved.sum());
+        lines.add("Shake packets sent: " + this.shakePacketsSent.sum());
+        lines.add("Refills handled: " + this.refillsHandled.sum() + ", failed: " + this.refillsFailed.sum());
+        lines.add("Place block events: " + this.placeBlockEvents.sum() + ", cancelled: " + this.placeBlockCancelled.sum());
+
+        return lines;
+    }
+
+    /**
+     * Writes the report to a new file inside the given directory.
+     *
+     * @return path of the written file
+     */
+    @Nonnull
+    public Path dump(@Nonnull Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        Path file = directory.resolve("brewery-metrics-" + System.currentTimeMillis() + ".txt");
+        Files.write(file, this.report());
+
+        return file;
+    }
+
+    public void reset() {
+        this.soberUpTickTime.values().forEach(LatencyHistogram::reset);
+
+        this.timersFired.reset();
+        this.drunkEntitiesVisited.reset();
+        this.effectsAdded.reset();
+        this.effectsRemoved.reset();
+        this.shakePacketsSent.reset();
+        this.refillsHandled.reset();
+        this.refillsFailed.reset();
+        this.placeBlockEvents.reset();
+        this.placeBlockCancelled.reset();
+
+        this.since = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,56 @@
+package com.thlion_.brewery.registry;
+
+import com.thlion_.brewery.config.BreweryConfig;
+import com.thlion_.brewery.drunk.DrunkRules;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Config together with every table derived from it, published as a whole on config or asset reload.
+ * Take it once per call, so a concurrent reload can't mix tables of two configs.
+ */
+public record BrewerySnapshot(
+    @Nonnull BreweryConfig config,
+    @Nonnull DrunkEffectRegistry drunkEffects,
+    @Nonnull ShakePacketCache shakePackets,
+    @Nonnull ItemRegistry items,
+    @Nonnull DrunkRules rules
+) {
+    /**
+     * @return snapshot with empty derived tables, used until assets are loaded
+     */
+    @Nonnull
+    public static BrewerySnapshot of(@Nonnull BreweryConfig config) {
+        return new BrewerySnapshot(
+            config,
+            DrunkEffectRegistry.EMPTY,
+            ShakePacketCache.EMPTY,
+            ItemRegistry.EMPTY,
+            createRules(config, ShakePacketCache.EMPTY)
+        );
+    }
+
+    /**
+     * Resolves every derived table against the currently loaded assets.
+     *
+     * @param previous snapshot being replaced
+     */
+    @Nonnull
+    public static BrewerySnapshot build(@Nonnull BreweryConfig config, @Nonnull BrewerySnapshot previous) {
+        ShakePacketCache shakePackets = ShakePacketCache.build(config);
+
+        return new BrewerySnapshot(
+            config,
+            DrunkEffectRegistry.build(config.getDrunkTierTable(), previous.drunkEffects()),
+            shakePackets,
+            ItemRegistry.build(config),
+            createRules(config, shakePackets)
+        );
+    }
+
+    @Nonnull
+    private static DrunkRules createRules(@Nonnull BreweryConfig config, @Nonnull ShakePacketCache shakePackets) {
+        // Shake buckets follow the built packets, none while the camera effect is missing
+        return new DrunkRules(config.getDrunkTierTable(), config.getSoberUpPerSecond(), shakePackets.getBuckets());
+    }
+}
@@ -0,0 +1,84 @@
+package com.thlion_.brewery.registry;
+
+import com.hypixel.hytale.server.core.asset.type.entityeffect.config.EntityEffect;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.config.DrunkTierTable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Effects of every drunk tier resolved to their {@link EntityEffect} asset indices.
+ * Effects of tiers dropped by a config reload still count as drunk effects, so they can be cleared.
+ * Immutable, a new one is built into every {@link BrewerySnapshot}.
+ */
+public class DrunkEffectRegistry {
+    public static final DrunkEffectRegistry EMPTY = new DrunkEffectRegistry(new int[0], new BitSet(), Set.of());
+
+    private final int[] indices;
+    private final BitSet drunkEffects;
+    // Effect ids of the current and every previous tier table
+    private final Set<String> effectIds;
+
+    private DrunkEffectRegistry(@Nonnull int[] indices, @Nonnull BitSet drunkEffects, @Nonnull Set<String> effectIds) {
+        this.indices = indices;
+        this.drunkEffects = drunkEffects;
+        this.effectIds = effectIds;
+    }
+
+    /**
+     * Resolves the tier effects against the currently loaded entity effect assets.
+     *
+     * @param previous registry being replaced, its effects are kept as drunk effects
+     */
+    @Nonnull
+    public static DrunkEffectRegistry build(@Nonnull DrunkTierTable tierTable, @Nonnull DrunkEffectRegistry previous) {
+        var assetMap = EntityEffect.getAssetMap();
+
+        int[] indices = new int[tierTable.size()];
+        Set<String> effectIds = new HashSet<>(previous.effectIds);
+
+        for (int i = 0; i < indices.length; i++) {
+            int index = assetMap.getIndex(tierTable.getEffectId(i));
+            indices[i] = index;
+            effectIds.add(tierTable.getEffectId(i));
+
+            if (index < 0) {
+                BreweryPlugin.LOGGER.atWarning().log("Unknown drunk tier effect %s", tierTable.getEffectId(i));
+            }
+        }
+
+        // Indices are resolved again, they may have moved since the previous build
+        BitSet drunkEffects = new BitSet();
+        for (String effectId : effectIds) {
+            int index = assetMap.getIndex(effectId);
+            if (index >= 0) drunkEffects.set(index);
+        }
+
+        return new DrunkEffectRegistry(indices, drunkEffects, Set.copyOf(effectIds));
+    }
+
+    public boolean isDrunkEffect(int effectIndex) {
+        return effectIndex >= 0 && this.drunkEffects.get(effectIndex);
+    }
+
+    /**
+     * @return asset index of the tier effect, or a negative value if it is not loaded
+     */
+    public int getTierEffectIndex(int tierIndex) {
+        if (tierIndex < 0 || tierIndex >= this.indices.length) return -1;
+
+        return this.indices[tierIndex];
+    }
+
+    @Nullable
+    public EntityEffect getTierEffect(int tierIndex) {
+        int index = this.getTierEffectIndex(tierIndex);
+        if (index < 0) return null;
+
+        return EntityEffect.getAssetMap().getAsset(index);
+    }
+}
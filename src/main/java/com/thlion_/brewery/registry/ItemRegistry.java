@@ -0,0 +1,99 @@
+package com.thlion_.brewery.registry;
+
+import com.hypixel.hytale.server.core.asset.type.item.config.Item;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.config.BreweryConfig;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+
+/**
+ * Assigns every {@link Item} asset a dense index and classifies it once per (re)load,
+ * so hot paths do a single lookup instead of scanning ids and raw tags. Classification itself
+ * is done by {@link ItemClassifier}.
+ *
+ * <p>Drinks declare their alcohol with the {@code Alcohol} tag, config {@code FoodValues} override it.
+ * Immutable, a new one is built into every {@link BrewerySnapshot}.
+ */
+public class ItemRegistry {
+    public static final int NO_INDEX = -1;
+
+    public static final ItemRegistry EMPTY = new ItemRegistry(newIndexMap(0), new byte[0], new float[0]);
+
+    private final Object2IntOpenHashMap<String> indices;
+    private final byte[] classes;
+    private final float[] alcohol;
+
+    private ItemRegistry(@Nonnull Object2IntOpenHashMap<String> indices, @Nonnull byte[] classes, @Nonnull float[] alcohol) {
+        this.indices = indices;
+        this.classes = classes;
+        this.alcohol = alcohol;
+    }
+
+    /**
+     * Indexes and classifies the currently loaded item assets.
+     */
+    @Nonnull
+    public static ItemRegistry build(@Nonnull BreweryConfig config) {
+        Map<String, Item> items = Item.getAssetMap().getAssetMap();
+
+        Object2IntOpenHashMap<String> indices = newIndexMap(items.size());
+        byte[] classes = new byte[items.size()];
+        float[] alcohol = new float[items.size()];
+
+        Map<String, Float> overrides = config.getDrunkValues();
+
+        int index = 0;
+        for (Map.Entry<String, Item> entry : items.entrySet()) {
+            indices.put(entry.getKey(), index);
+
+            Map<String, String[]> tags = entry.getValue().getData().getRawTags();
+            classes[index] = ItemClassifier.classify(entry.getKey(), tags);
+
+            Float override = overrides.get(entry.getKey());
+            alcohol[index] = override != null ? override : getDeclaredAlcohol(entry.getKey(), tags);
+
+            index++;
+        }
+
+        return new ItemRegistry(indices, classes, alcohol);
+    }
+
+    /**
+     * @return dense index of the item, or {@link #NO_INDEX} if it is not loaded
+     */
+    public int getIndex(@Nonnull String itemId) {
+        return this.indices.getInt(itemId);
+    }
+
+    public byte getItemClass(@Nonnull String itemId) {
+        int index = this.indices.getInt(itemId);
+        return index == NO_INDEX ? ItemClassifier.CLASS_OTHER : this.classes[index];
+    }
+
+    /**
+     * @return drunk value gained by consuming the item, {@code 0} for non alcoholic items
+     */
+    public float getAlcohol(@Nonnull String itemId) {
+        int index = this.indices.getInt(itemId);
+        return index == NO_INDEX ? 0.0F : this.alcohol[index];
+    }
+
+    private static float getDeclaredAlcohol(@Nonnull String itemId, @Nonnull Map<String, String[]> tags) {
+        try {
+            return ItemClassifier.getDeclaredAlcohol(tags);
+        } catch (NumberFormatException e) {
+            BreweryPlugin.LOGGER.atWarning().log("Invalid alcohol tag %s on item %s", tags.get(ItemClassifier.ALCOHOL_TAG)[0], itemId);
+            return 0.0F;
+        }
+    }
+
+    @Nonnull
+    private static Object2IntOpenHashMap<String> newIndexMap(int expected) {
+        Object2IntOpenHashMap<String> indices = new Object2IntOpenHashMap<>(expected);
+        indices.defaultReturnValue(NO_INDEX);
+
+        return indices;
+    }
+}
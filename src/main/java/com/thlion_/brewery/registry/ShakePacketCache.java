@@ -0,0 +1,65 @@
+package com.thlion_.brewery.registry;
+
+import com.hypixel.hytale.math.util.MathUtil;
+import com.hypixel.hytale.protocol.Packet;
+import com.hypixel.hytale.server.core.asset.type.camera.CameraEffect;
+import com.thlion_.brewery.config.BreweryConfig;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Prebuilt camera shake packets, one per quantized intensity bucket.
+ * Bucket {@code 0} always holds the packet which stops the shake.
+ * Immutable, a new one is built into every {@link BrewerySnapshot}.
+ */
+public class ShakePacketCache {
+    public static final String CAMERA_SHAKE_EFFECT = "Drunk_Shake";
+
+    public static final ShakePacketCache EMPTY = new ShakePacketCache(new Packet[0]);
+
+    private final Packet[] packets;
+
+    private ShakePacketCache(@Nonnull Packet[] packets) {
+        this.packets = packets;
+    }
+
+    /**
+     * Builds the packets from the currently loaded camera effect, empty if it is missing.
+     */
+    @Nonnull
+    public static ShakePacketCache build(@Nonnull BreweryConfig config) {
+        CameraEffect cameraEffect = CameraEffect.getAssetMap().getAsset(CAMERA_SHAKE_EFFECT);
+        if (cameraEffect == null) return EMPTY;
+
+        int buckets = Math.max(1, config.getCameraShakeBuckets());
+        Packet[] packets = new Packet[buckets + 1];
+
+        packets[0] = cameraEffect.createCameraShakePacket(0.0F);
+        for (int bucket = 1; bucket <= buckets; bucket++) {
+            float intensity = MathUtil.lerp(
+                config.getCameraDrunkEffectMin(),
+                config.getCameraDrunkEffectMax(),
+                (float) bucket / buckets
+            );
+
+            packets[bucket] = cameraEffect.createCameraShakePacket(intensity);
+        }
+
+        return new ShakePacketCache(packets);
+    }
+
+    /**
+     * @return amount of intensity buckets, {@code 0} if the camera effect is not loaded
+     */
+    public int getBuckets() {
+        return Math.max(this.packets.length - 1, 0);
+    }
+
+    @Nullable
+    public Packet getPacket(int bucket) {
+        if (bucket < 0 || bucket >= this.packets.length) return null;
+
+        return this.packets[bucket];
+    }
+}
@@ -0,0 +1,44 @@
+package com.thlion_.brewery.resources;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Resource;
+import com.hypixel.hytale.component.ResourceType;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.leaderboard.DrunkLeaderboard;
+import com.thlion_.brewery.utils.BreweryClock;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Per world leaderboard of drunk players, kept up to date by {@code SoberUpSystem}.
+ */
+public class DrunkLeaderboardResource implements Resource<EntityStore> {
+    private final DrunkLeaderboard<Ref<EntityStore>> leaderboard = new DrunkLeaderboard<>();
+
+    @Nonnull
+    public DrunkLeaderboard<Ref<EntityStore>> getLeaderboard() {
+        return this.leaderboard;
+    }
+
+    /**
+     * @return at most {@code count} drunkest players of this world, without touching the store
+     */
+    @Nonnull
+    public List<DrunkLeaderboard.Standing<Ref<EntityStore>>> top(int count) {
+        return this.leaderboard.top(count, BreweryClock.now(), Ref::isValid);
+    }
+
+    @SuppressWarnings("MethodDoesntCallSuperMethod")
+    @Nonnull
+    @Override
+    public Resource<EntityStore> clone() {
+        // Entries are keyed by entity refs, which are never shared between stores
+        return new DrunkLeaderboardResource();
+    }
+
+    public static ResourceType<EntityStore, DrunkLeaderboardResource> getResourceType() {
+        return BreweryPlugin.get().getDrunkLeaderboardResourceType();
+    }
+}
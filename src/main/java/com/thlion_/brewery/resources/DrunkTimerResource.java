@@ -0,0 +1,79 @@
+package com.thlion_.brewery.resources;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Resource;
+import com.hypixel.hytale.component.ResourceType;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.components.DrunkComponent;
+import com.thlion_.brewery.drunk.DrunkChanges;
+import com.thlion_.brewery.drunk.DrunkContext;
+import com.thlion_.brewery.drunk.DrunkMachine;
+import com.thlion_.brewery.drunk.EntityDrunkEffects;
+import com.thlion_.brewery.drunk.PlayerShakePackets;
+import com.thlion_.brewery.registry.BrewerySnapshot;
+import com.thlion_.brewery.utils.BreweryClock;
+import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Per world {@link DrunkMachine} of drunk players: timers of the next tier transition
+ * and camera shake refresh, and shake packets waiting for the per tick budget.
+ */
+public class DrunkTimerResource implements Resource<EntityStore> {
+    private final DrunkMachine<DrunkContext, Ref<EntityStore>, DrunkComponent> machine = new DrunkMachine<>(
+        DrunkMachine.KINDS, BreweryClock::now, EntityDrunkEffects.INSTANCE, PlayerShakePackets.INSTANCE
+    );
+    // Due timer kinds of every entity as bit flags, reused between ticks
+    private final Object2IntLinkedOpenHashMap<Ref<EntityStore>> dueTimers = new Object2IntLinkedOpenHashMap<>();
+    // Store changes of the due entities, applied once all of them were processed
+    private final DrunkChanges changes = new DrunkChanges();
+    // Snapshot drunk players of this world were last moved over to
+    @Nullable
+    private BrewerySnapshot snapshot;
+
+    @Nonnull
+    public DrunkMachine<DrunkContext, Ref<EntityStore>, DrunkComponent> getMachine() {
+        return this.machine;
+    }
+
+    @Nonnull
+    public Object2IntLinkedOpenHashMap<Ref<EntityStore>> getDueTimers() {
+        return this.dueTimers;
+    }
+
+    @Nonnull
+    public DrunkChanges getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * Makes {@code snapshot} the current one of this world.
+     *
+     * @return whether drunk players have to be moved over from a previous snapshot
+     */
+    public boolean adoptSnapshot(@Nonnull BrewerySnapshot snapshot) {
+        BrewerySnapshot previous = this.snapshot;
+        this.snapshot = snapshot;
+
+        return previous != null && previous != snapshot;
+    }
+
+    public static int flag(int kind) {
+        return 1 << kind;
+    }
+
+    @SuppressWarnings("MethodDoesntCallSuperMethod")
+    @Nonnull
+    @Override
+    public Resource<EntityStore> clone() {
+        // Timers and packets are keyed by entity refs, which are never shared between stores
+        return new DrunkTimerResource();
+    }
+
+    public static ResourceType<EntityStore, DrunkTimerResource> getResourceType() {
+        return BreweryPlugin.get().getDrunkTimerResourceType();
+    }
+}
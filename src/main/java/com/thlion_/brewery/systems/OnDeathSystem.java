@@ -4,31 +4,53 @@ import com.hypixel.hytale.component.CommandBuffer;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.server.core.modules.entity.component.Invulnerable;
 import com.hypixel.hytale.server.core.modules.entity.damage.DeathComponent;
 import com.hypixel.hytale.server.core.modules.entity.damage.DeathSystems;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
 import com.thlion_.brewery.components.DrunkComponent;
+import com.thlion_.brewery.components.IntoxicatedComponent;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+/**
+ * Sobers up or suspends drunk players once they die, depending on {@code ResetDrunkOnDeath}.
+ */
 public class OnDeathSystem extends DeathSystems.OnDeathSystem {
     @Override
     public void onComponentAdded(@Nonnull Ref<EntityStore> ref, @Nonnull DeathComponent deathComponent, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        DrunkComponent drunkComponent = store.getComponent(ref, DrunkComponent.getComponentType());
+        PlayerRef playerRefComponent = store.getComponent(ref, PlayerRef.getComponentType());
+        if (drunkComponent == null || playerRefComponent == null) return;
 
+        SoberUpSystem soberUpSystem = BreweryPlugin.get().getSoberUpSystem();
+        if (BreweryPlugin.getConfig().isResetDrunkOnDeath()) {
+            soberUpSystem.soberUp(commandBuffer, ref, playerRefComponent, drunkComponent);
+        } else {
+            soberUpSystem.suspend(commandBuffer, ref, drunkComponent);
+        }
     }
 
     @Override
     public void onComponentRemoved(@Nonnull Ref<EntityStore> ref, @Nonnull DeathComponent component, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        // Respawn protection keeps the player suspended, OnInvulnerableSystem resumes them
+        if (store.getComponent(ref, Invulnerable.getComponentType()) != null) return;
 
+        DrunkComponent drunkComponent = store.getComponent(ref, DrunkComponent.getComponentType());
+        if (drunkComponent != null) {
+            BreweryPlugin.get().getSoberUpSystem().resume(commandBuffer, ref, drunkComponent);
+        }
     }
 
     @Nullable
     @Override
     public Query<EntityStore> getQuery() {
+        // Sober players have nothing to sober up or suspend
         return Query.and(
-            DrunkComponent.getComponentType(),
+            IntoxicatedComponent.getComponentType(),
             PlayerRef.getComponentType()
         );
     }
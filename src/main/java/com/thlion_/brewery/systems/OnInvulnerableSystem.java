@@ -0,0 +1,60 @@
+package com.thlion_.brewery.systems;
+
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.component.system.RefChangeSystem;
+import com.hypixel.hytale.server.core.modules.entity.component.Invulnerable;
+import com.hypixel.hytale.server.core.modules.entity.damage.DeathComponent;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.components.DrunkComponent;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Suspends drunk players while they are invulnerable, their drunk level is frozen until it ends.
+ */
+public class OnInvulnerableSystem extends RefChangeSystem<EntityStore, Invulnerable> {
+    @Nonnull
+    @Override
+    public ComponentType<EntityStore, Invulnerable> componentType() {
+        return Invulnerable.getComponentType();
+    }
+
+    @Override
+    public void onComponentAdded(@Nonnull Ref<EntityStore> ref, @Nonnull Invulnerable component, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        DrunkComponent drunkComponent = store.getComponent(ref, DrunkComponent.getComponentType());
+        if (drunkComponent != null) {
+            BreweryPlugin.get().getSoberUpSystem().suspend(commandBuffer, ref, drunkComponent);
+        }
+    }
+
+    @Override
+    public void onComponentSet(@Nonnull Ref<EntityStore> ref, @Nullable Invulnerable oldComponent, @Nonnull Invulnerable newComponent, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {}
+
+    @Override
+    public void onComponentRemoved(@Nonnull Ref<EntityStore> ref, @Nonnull Invulnerable component, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        // Dead players stay suspended, OnDeathSystem resumes them on respawn
+        if (store.getComponent(ref, DeathComponent.getComponentType()) != null) return;
+
+        DrunkComponent drunkComponent = store.getComponent(ref, DrunkComponent.getComponentType());
+        if (drunkComponent != null) {
+            BreweryPlugin.get().getSoberUpSystem().resume(commandBuffer, ref, drunkComponent);
+        }
+    }
+
+    @Nullable
+    @Override
+    public Query<EntityStore> getQuery() {
+        // Sober players are suspended too, so drinks while invulnerable don't decay either
+        return Query.and(
+            DrunkComponent.getComponentType(),
+            PlayerRef.getComponentType()
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package com.thlion_.brewery.systems;
+
+import com.hypixel.hytale.component.AddReason;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.RemoveReason;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.component.system.RefSystem;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.components.DrunkComponent;
+import com.thlion_.brewery.resources.DrunkLeaderboardResource;
+import com.thlion_.brewery.resources.DrunkTimerResource;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Drops leaderboard entry, timers and queued shake packets of players leaving the world,
+ * whether they disconnect or move to another world.
+ */
+public class OnLeaveSystem extends RefSystem<EntityStore> {
+    @Override
+    public void onEntityAdded(@Nonnull Ref<EntityStore> ref, @Nonnull AddReason reason, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {}
+
+    @Override
+    public void onEntityRemove(@Nonnull Ref<EntityStore> ref, @Nonnull RemoveReason reason, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        store.getResource(DrunkLeaderboardResource.getResourceType()).getLeaderboard().remove(ref);
+        store.getResource(DrunkTimerResource.getResourceType()).getMachine().remove(ref);
+    }
+
+    @Nullable
+    @Override
+    public Query<EntityStore> getQuery() {
+        // Sober players may still have a queued packet stopping the shake
+        return DrunkComponent.getComponentType();
+    }
+}
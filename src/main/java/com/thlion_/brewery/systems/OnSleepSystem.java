@@ -0,0 +1,70 @@
+package com.thlion_.brewery.systems;
+
+import com.hypixel.hytale.builtin.beds.sleep.components.PlayerSleep;
+import com.hypixel.hytale.builtin.beds.sleep.components.PlayerSomnolence;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.component.system.RefChangeSystem;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.components.DrunkComponent;
+import com.thlion_.brewery.components.IntoxicatedComponent;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Sobers up drunk players once they fall into slumber, on every add or set of the somnolence component.
+ */
+public class OnSleepSystem extends RefChangeSystem<EntityStore, PlayerSomnolence> {
+    @Nonnull
+    @Override
+    public ComponentType<EntityStore, PlayerSomnolence> componentType() {
+        return PlayerSomnolence.getComponentType();
+    }
+
+    @Override
+    public void onComponentAdded(@Nonnull Ref<EntityStore> ref, @Nonnull PlayerSomnolence component, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        if (isSlumber(component)) {
+            this.soberUp(ref, store, commandBuffer);
+        }
+    }
+
+    @Override
+    public void onComponentSet(@Nonnull Ref<EntityStore> ref, @Nullable PlayerSomnolence oldComponent, @Nonnull PlayerSomnolence newComponent, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        // Old component may be the same instance with its sleep state changed in place, so it can't tell
+        // whether slumber just began. Sobered up players leave the query, later sets in slumber skip them
+        if (isSlumber(newComponent)) {
+            this.soberUp(ref, store, commandBuffer);
+        }
+    }
+
+    @Override
+    public void onComponentRemoved(@Nonnull Ref<EntityStore> ref, @Nonnull PlayerSomnolence component, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {}
+
+    private void soberUp(@Nonnull Ref<EntityStore> ref, @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        DrunkComponent drunkComponent = store.getComponent(ref, DrunkComponent.getComponentType());
+        PlayerRef playerRefComponent = store.getComponent(ref, PlayerRef.getComponentType());
+        if (drunkComponent == null || playerRefComponent == null) return;
+
+        BreweryPlugin.get().getSoberUpSystem().soberUp(commandBuffer, ref, playerRefComponent, drunkComponent);
+    }
+
+    private static boolean isSlumber(@Nonnull PlayerSomnolence component) {
+        return component.getSleepState() instanceof PlayerSleep.Slumber;
+    }
+
+    @Nullable
+    @Override
+    public Query<EntityStore> getQuery() {
+        // Sober players have nothing to sober up
+        return Query.and(
+            IntoxicatedComponent.getComponentType(),
+            PlayerRef.getComponentType()
+        );
+    }
+}
@@ -6,31 +6,26 @@ import com.hypixel.hytale.component.CommandBuffer;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.component.query.Query;
 import com.hypixel.hytale.component.system.EntityEventSystem;
-import com.hypixel.hytale.server.core.asset.type.item.config.Item;
 import com.hypixel.hytale.server.core.event.events.ecs.PlaceBlockEvent;
 import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
-import com.thlion_.brewery.utils.Utils;
+import com.thlion_.brewery.BreweryPlugin;
+import com.thlion_.brewery.jfr.PlaceBlockCheckEvent;
+import com.thlion_.brewery.metrics.BreweryMetrics;
+import com.thlion_.brewery.registry.ItemClassifier;
+import com.thlion_.brewery.registry.ItemRegistry;
+import com.thlion_.brewery.trace.BreweryTrace;
+import com.thlion_.brewery.trace.TraceRecord;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+/**
+ * Prevents placing partially consumed brewery drinks. Items are classified once per asset load
+ * by {@link ItemRegistry}, so every placement costs a single lookup.
+ */
 public class PlaceBlockSystem extends EntityEventSystem<EntityStore, PlaceBlockEvent> {
-    // Teleporter-related block identifiers to whitelist
-    private static final String[] TELEPORTER_TAGS = {
-        "Teleporter",
-        "Portal",
-        "Warp",
-        "FastTravel"
-    };
-    
-    // Hytale's built-in teleporter block names
-    private static final String[] TELEPORTER_BLOCKS = {
-        "hytale:teleporter",
-        "hytale:portal_frame",
-        "hytale:warp_stone"
-    };
-
     public PlaceBlockSystem() {
         super(PlaceBlockEvent.class);
     }
@@ -43,29 +38,45 @@ public class PlaceBlockSystem extends EntityEventSystem<EntityStore, PlaceBlockE
         @Nonnull CommandBuffer<EntityStore> commandBuffer,
         @Nonnull PlaceBlockEvent event
     ) {
+        BreweryMetrics metrics = BreweryPlugin.get().getMetrics();
+        metrics.getPlaceBlockEvents().increment();
+
         // Skip if already cancelled by another system
         if (event.isCancelled()) return;
 
+        PlaceBlockCheckEvent jfrEvent = new PlaceBlockCheckEvent();
+        jfrEvent.begin();
+
         ItemStack itemStack = event.getItemInHand();
-        if (itemStack == null) return;
+        ItemRegistry items = BreweryPlugin.getSnapshot().items();
+        boolean cancelled = itemStack != null && this.isPartiallyConsumedDrink(itemStack, items);
+
+        if (cancelled) {
+            event.setCancelled(true);
+            metrics.getPlaceBlockCancelled().increment();
 
-        Item item = itemStack.getItem();
-        if (this.isTeleporterItem(item.getId())) {
-            return;
+            BreweryTrace.record(
+                commandBuffer, archetypeChunk.getReferenceTo(index), TraceRecord.PLACE_VETOED,
+                (float) itemStack.getDurability(), 0.0F, items.getIndex(itemStack.getItemId())
+            );
         }
 
-        // Check if item has brewery-specific tags
-        if (!Utils.hasBreweryTag(item)) {
-            return; // Not a brewery item, allow placement
+        if (jfrEvent.shouldCommit()) {
+            PlayerRef playerRef = archetypeChunk.getComponent(index, PlayerRef.getComponentType());
+            jfrEvent.entity = playerRef != null ? playerRef.getUsername() : null;
+            jfrEvent.item = itemStack != null ? itemStack.getItemId() : null;
+            jfrEvent.cancelled = cancelled;
+            jfrEvent.commit();
         }
+    }
 
-        // Only prevent placement of partially consumed brewery drinks
-        boolean hasBreweryDrinkTag = Utils.isItemStackHasTag(item, "Type", "Brewery_Drink");
-        boolean isPartiallyConsumed = itemStack.getDurability() != itemStack.getMaxDurability();
+    private boolean isPartiallyConsumedDrink(@Nonnull ItemStack itemStack, @Nonnull ItemRegistry items) {
+        // Teleporters and non brewery items are always allowed
+        byte itemClass = items.getItemClass(itemStack.getItemId());
+        if (itemClass != ItemClassifier.CLASS_BREWERY_DRINK) return false;
 
-        if (hasBreweryDrinkTag && isPartiallyConsumed) {
-            event.setCancelled(true);
-        }
+        // Only prevent placement of partially consumed brewery drinks
+        return itemStack.getDurability() != itemStack.getMaxDurability();
     }
 
     @Nullable
@@ -73,26 +84,4 @@ public class PlaceBlockSystem extends EntityEventSystem<EntityStore, PlaceBlockE
     public Query<EntityStore> getQuery() {
         return Archetype.empty();
     }
-
-    /**
-     * Check if an item is a teleporter-related block
-     */
-    private boolean isTeleporterItem(@Nonnull String itemId) {
-        // Check exact block IDs
-        for (String teleporterBlock : TELEPORTER_BLOCKS) {
-            if (itemId.equals(teleporterBlock)) {
-                return true;
-            }
-        }
-
-        // Check if item ID contains teleporter keywords
-        String lowerItemId = itemId.toLowerCase();
-        for (String tag : TELEPORTER_TAGS) {
-            if (lowerItemId.contains(tag.toLowerCase())) {
-                return true;
-            }
-        }
-
-        return false;
-    }
 }
@@ -0,0 +1,18 @@
+package com.thlion_.brewery.systems;
+
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.system.tick.TickingSystem;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Schedules at most one drain of the ready players buffered for this world per tick.
+ */
+public class PlayerReadySystem extends TickingSystem<EntityStore> {
+    @Override
+    public void tick(float deltaTime, int systemIndex, @Nonnull Store<EntityStore> store) {
+        BreweryPlugin.get().getPlayerReadyBuffer().schedule(store.getExternalData().getWorld());
+    }
+}
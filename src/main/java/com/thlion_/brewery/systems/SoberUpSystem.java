@@ -1,203 +1,287 @@
 package com.thlion_.brewery.systems;
 
-import com.hypixel.hytale.builtin.beds.sleep.components.PlayerSleep;
-import com.hypixel.hytale.builtin.beds.sleep.components.PlayerSomnolence;
-import com.hypixel.hytale.component.ArchetypeChunk;
-import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.ComponentAccessor;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
-import com.hypixel.hytale.component.query.Query;
-import com.hypixel.hytale.component.system.tick.EntityTickingSystem;
-import com.hypixel.hytale.math.util.MathUtil;
-import com.hypixel.hytale.server.core.asset.type.camera.CameraEffect;
-import com.hypixel.hytale.server.core.asset.type.entityeffect.config.EntityEffect;
-import com.hypixel.hytale.server.core.entity.effect.ActiveEntityEffect;
+import com.hypixel.hytale.component.system.tick.TickingSystem;
 import com.hypixel.hytale.server.core.entity.effect.EffectControllerComponent;
-import com.hypixel.hytale.server.core.entity.entities.Player;
-import com.hypixel.hytale.server.core.modules.entity.component.Invulnerable;
-import com.hypixel.hytale.server.core.modules.entity.damage.DeathComponent;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.thlion_.brewery.BreweryPlugin;
 import com.thlion_.brewery.components.DrunkComponent;
-import com.thlion_.brewery.config.BreweryConfig;
-import com.thlion_.brewery.utils.Utils;
+import com.thlion_.brewery.components.IntoxicatedComponent;
+import com.thlion_.brewery.config.DrunkTierTable;
+import com.thlion_.brewery.drunk.DrunkChanges;
+import com.thlion_.brewery.drunk.DrunkContext;
+import com.thlion_.brewery.drunk.DrunkMachine;
+import com.thlion_.brewery.drunk.DrunkRules;
+import com.thlion_.brewery.jfr.DrunkTransitionEvent;
+import com.thlion_.brewery.jfr.SoberUpTickEvent;
+import com.thlion_.brewery.leaderboard.DrunkLeaderboard;
+import com.thlion_.brewery.metrics.BreweryMetrics;
+import com.thlion_.brewery.resources.DrunkLeaderboardResource;
+import com.thlion_.brewery.resources.DrunkTimerResource;
+import com.thlion_.brewery.trace.BreweryTrace;
+import com.thlion_.brewery.trace.TraceRecord;
+import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Arrays;
-import java.util.List;
 
-public class SoberUpSystem extends EntityTickingSystem<EntityStore> {
-    private static final String CAMERA_SHAKE_EFFECT = "Drunk_Shake";
-    private static final float CAMERA_SHAKE_DURATION = 2.0F;
+/**
+ * Drives the per world {@link DrunkMachine} of {@link DrunkTimerResource}, which schedules tier
+ * transitions and shake refreshes in advance, so only the timers that are due get processed.
+ * Adds what the core knows nothing about: {@link IntoxicatedComponent}, leaderboard, trace and JFR events.
+ * Sleep, death and invulnerability are handled by {@link OnSleepSystem}, {@link OnDeathSystem}
+ * and {@link OnInvulnerableSystem} when they happen.
+ */
+public class SoberUpSystem extends TickingSystem<EntityStore> {
+    @Override
+    public void tick(float deltaTime, int systemIndex, @Nonnull Store<EntityStore> store) {
+        long startNanos = System.nanoTime();
+
+        SoberUpTickEvent jfrEvent = new SoberUpTickEvent();
+        jfrEvent.begin();
+
+        DrunkTimerResource timerResource = store.getResource(DrunkTimerResource.getResourceType());
+        DrunkMachine<DrunkContext, Ref<EntityStore>, DrunkComponent> machine = timerResource.getMachine();
+        Object2IntLinkedOpenHashMap<Ref<EntityStore>> dueTimers = timerResource.getDueTimers();
+        DrunkContext context = new DrunkContext(store, BreweryPlugin.getSnapshot(), timerResource.getChanges());
 
-    private final float soberTickRate;
-    private final float soberUpPerTick;
+        // Config or assets were reloaded, timers scheduled under the old rules are rescheduled first
+        if (timerResource.adoptSnapshot(context.snapshot())) {
+            this.reload(context, machine, store);
+        }
 
-    private final float cameraDrunkEffectMin;
-    private final float cameraDrunkEffectMax;
+        // Collect first, so every entity is visited once, whatever amount of its timers are due
+        BreweryMetrics metrics = BreweryPlugin.get().getMetrics();
+        machine.advance((ref, kind) -> {
+            dueTimers.put(ref, dueTimers.getInt(ref) | DrunkTimerResource.flag(kind));
+            metrics.getTimersFired().increment();
+        });
 
-    private final List<DrunkTier> drunkTiers;
+        int dueEntities = dueTimers.size();
 
-    public SoberUpSystem() {
-        BreweryConfig config = BreweryPlugin.getConfig();
+        // Pass only reads the store, its changes are applied once every due entity was processed
+        for (Object2IntMap.Entry<Ref<EntityStore>> entry : Object2IntMaps.fastIterable(dueTimers)) {
+            this.onTimers(context, machine, entry.getKey(), entry.getIntValue());
+        }
 
-        this.soberTickRate = config.getSoberTickRate();
-        this.soberUpPerTick = config.getSoberUpPerTick();
+        dueTimers.clear();
+        context.changes().apply(store);
 
-        this.cameraDrunkEffectMin = config.getCameraDrunkEffectMin();
-        this.cameraDrunkEffectMax = config.getCameraDrunkEffectMax();
+        int shakesSent = machine.flushShakes(context, context.snapshot().rules(), context.snapshot().config().getCosmeticPacketsPerTick());
 
-        this.drunkTiers = this.createTierList(config);
-    }
+        String worldName = store.getExternalData().getWorld().getName();
+        metrics.getSoberUpTickTime(worldName).record(System.nanoTime() - startNanos);
 
-    private @Nonnull List<DrunkTier> createTierList(@Nonnull BreweryConfig config) {
-        float tier1 = config.getDrunkRequiredTier1();
-        float tier2 = config.getDrunkRequiredTier2();
-        float tier3 = config.getDrunkRequiredTier3();
-        float tier4 = config.getDrunkRequiredTier4();
-
-        return List.of(
-            new DrunkTier(tier4, "Brewery_Drink_Effect_Very_Drunk"),
-            new DrunkTier(tier3, "Brewery_Drink_Effect_Drunk"),
-            new DrunkTier(tier2, "Brewery_Drink_Effect_Little_Drunk"),
-            new DrunkTier(tier1, "Brewery_Drink_Effect_Sober")
-        );
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.world = worldName;
+            jfrEvent.entities = dueEntities;
+            jfrEvent.shakePackets = shakesSent;
+            jfrEvent.commit();
+        }
     }
 
-    private record DrunkTier(float threshold, String effectName) {}
+    /**
+     * Moves every drunk player of the world over to the rules of the current snapshot. Levels are kept,
+     * effects of the old tiers are cleared since the snapshot still knows them as drunk effects.
+     */
+    private void reload(
+        @Nonnull DrunkContext context,
+        @Nonnull DrunkMachine<DrunkContext, Ref<EntityStore>, DrunkComponent> machine,
+        @Nonnull Store<EntityStore> store
+    ) {
+        DrunkRules rules = context.snapshot().rules();
+
+        store.forEachChunk(DrunkComponent.getComponentType(), (archetypeChunk, commandBuffer) -> {
+            for (int index = 0; index < archetypeChunk.size(); index++) {
+                Ref<EntityStore> ref = archetypeChunk.getReferenceTo(index);
+                DrunkComponent drunkComponent = archetypeChunk.getComponent(index, DrunkComponent.getComponentType());
+                if (drunkComponent == null) continue;
+
+                // Sober players have nothing applied, they pick up the new rate on their next drink
+                if (drunkComponent.getDrunkLevel(machine.now()) <= 0.0F) continue;
+
+                // Suspended players are checked again once they resume
+                if (drunkComponent.isPaused() || archetypeChunk.getComponent(index, EffectControllerComponent.getComponentType()) == null) {
+                    drunkComponent.reanchor(machine.now(), rules.soberUpRate());
+                    this.updateLeaderboard(context.accessor(), ref, null, drunkComponent, machine.now());
+                    continue;
+                }
+
+                machine.reload(context, ref, drunkComponent, rules);
+                this.updateLeaderboard(context.accessor(), ref, null, drunkComponent, machine.now());
+            }
+        });
+    }
 
-    @Override
-    public void tick(
-        float deltaTime,
-        int index,
-        @Nonnull ArchetypeChunk<EntityStore> archetypeChunk,
-        @Nonnull Store<EntityStore> store,
-        @Nonnull CommandBuffer<EntityStore> commandBuffer
+    /**
+     * @param dueKinds flags of the due timer kinds, see {@link DrunkTimerResource#flag(int)}
+     */
+    private void onTimers(
+        @Nonnull DrunkContext context,
+        @Nonnull DrunkMachine<DrunkContext, Ref<EntityStore>, DrunkComponent> machine,
+        @Nonnull Ref<EntityStore> ref,
+        int dueKinds
     ) {
-        DrunkComponent drunkComponent = archetypeChunk.getComponent(index, DrunkComponent.getComponentType());
-        Player playerComponent = archetypeChunk.getComponent(index, Player.getComponentType());
-        PlayerRef playerRefComponent = archetypeChunk.getComponent(index, PlayerRef.getComponentType());
-        PlayerSomnolence playerSomnolence = archetypeChunk.getComponent(index, PlayerSomnolence.getComponentType());
-        if (drunkComponent == null || playerComponent == null || playerRefComponent == null) return;
+        if (!ref.isValid()) return;
 
-        Ref<EntityStore> ref = playerComponent.getReference();
-        if (ref == null) return;
+        ComponentAccessor<EntityStore> accessor = context.accessor();
+        DrunkComponent drunkComponent = accessor.getComponent(ref, DrunkComponent.getComponentType());
+        PlayerRef playerRefComponent = accessor.getComponent(ref, PlayerRef.getComponentType());
+        if (drunkComponent == null || playerRefComponent == null) return;
 
-        float drunkLevel = drunkComponent.getDrunkLevel();
-        if (drunkLevel <= 0.0F) return;
+        BreweryPlugin.get().getMetrics().getDrunkEntitiesVisited().increment();
 
-        drunkComponent.addElapsedTime(deltaTime);
-        if (drunkComponent.getElapsedTime() > this.soberTickRate) {
-            drunkComponent.setElapsedTime(0.0F);
+        boolean transition = (dueKinds & DrunkTimerResource.flag(DrunkMachine.TRANSITION)) != 0;
+        boolean shake = (dueKinds & DrunkTimerResource.flag(DrunkMachine.SHAKE)) != 0;
 
-            drunkComponent.decreaseDrunk(this.soberUpPerTick);
-            this.updateDrunkEffects(store, ref, null, drunkComponent, false);
+        if (transition) {
+            this.updateDrunkEffects(context, machine, ref, playerRefComponent, drunkComponent, false);
         }
 
-        drunkComponent.addEffectTime(deltaTime);
-        if (drunkComponent.getEffectTime() > (CAMERA_SHAKE_DURATION - 0.5 - deltaTime)) {
-            drunkComponent.setEffectTime(0.0F);
-
-            this.applyShakeEffect(playerRefComponent, drunkLevel);
+        if (shake) {
+            machine.refreshShake(ref, drunkComponent, context.snapshot().rules());
         }
+    }
 
-        if (playerSomnolence != null) {
-            if (playerSomnolence.getSleepState() instanceof PlayerSleep.Slumber) {
-                drunkComponent.setDrunkLevel(0.0F);
-                this.updateDrunkEffects(store, ref, null, drunkComponent, false);
-                this.removeShakeEffect(playerRefComponent);
-            }
-        }
+    /**
+     * Sobers the player up at once, clearing drunk effects, timers and camera shake.
+     */
+    public void soberUp(
+        @Nonnull ComponentAccessor<EntityStore> accessor,
+        @Nonnull Ref<EntityStore> ref,
+        @Nonnull PlayerRef playerRefComponent,
+        @Nonnull DrunkComponent drunkComponent
+    ) {
+        drunkComponent.setDrunkLevel(0.0F);
+        this.updateDrunkEffects(accessor, ref, playerRefComponent, drunkComponent, false);
+        getMachine(accessor).removeShake(ref, drunkComponent);
+    }
+
+    /**
+     * Stops timers and camera shake of a dead or invulnerable player, drunk level is frozen meanwhile.
+     */
+    public void suspend(@Nonnull ComponentAccessor<EntityStore> accessor, @Nonnull Ref<EntityStore> ref, @Nonnull DrunkComponent drunkComponent) {
+        DrunkMachine<DrunkContext, Ref<EntityStore>, DrunkComponent> machine = getMachine(accessor);
+        machine.suspend(ref, drunkComponent);
+
+        // Entry is frozen along with the level
+        this.updateLeaderboard(accessor, ref, null, drunkComponent, machine.now());
+    }
+
+    /**
+     * Lets drunk level decay again and re-applies drunk effects on the next tick.
+     */
+    public void resume(@Nonnull ComponentAccessor<EntityStore> accessor, @Nonnull Ref<EntityStore> ref, @Nonnull DrunkComponent drunkComponent) {
+        // Effects are wiped on death, so they are checked again in any case
+        DrunkMachine<DrunkContext, Ref<EntityStore>, DrunkComponent> machine = getMachine(accessor);
+        machine.resume(ref, drunkComponent);
+
+        this.updateLeaderboard(accessor, ref, null, drunkComponent, machine.now());
     }
 
+    /**
+     * Syncs drunk effects, timers and {@link IntoxicatedComponent} with the current drunk level.
+     * Structural changes go through {@code accessor} once the update is done, so pass the command buffer
+     * while iterating the store.
+     */
     public void updateDrunkEffects(
-        @Nonnull Store<EntityStore> store,
+        @Nonnull ComponentAccessor<EntityStore> accessor,
         @Nonnull Ref<EntityStore> ref,
         @Nullable PlayerRef playerRefComponent,
         @Nonnull DrunkComponent drunkComponent,
         boolean isDrink
     ) {
-        EffectControllerComponent effectComponent = store.getComponent(ref, EffectControllerComponent.getComponentType());
-        if (effectComponent == null) return;
+        // Take the snapshot once, so a concurrent reload can't mix tiers and effects of two configs
+        DrunkContext context = new DrunkContext(accessor, BreweryPlugin.getSnapshot(), new DrunkChanges());
+        this.updateDrunkEffects(context, getMachine(accessor), ref, playerRefComponent, drunkComponent, isDrink);
 
-        float drunkLevel = drunkComponent.getDrunkLevel();
+        context.changes().apply(accessor);
+    }
 
-        DrunkTier drunkTier = this.drunkTiers.stream()
-            .filter(tier -> drunkLevel >= tier.threshold)
-            .findFirst()
-            .orElse(null);
+    private void updateDrunkEffects(
+        @Nonnull DrunkContext context,
+        @Nonnull DrunkMachine<DrunkContext, Ref<EntityStore>, DrunkComponent> machine,
+        @Nonnull Ref<EntityStore> ref,
+        @Nullable PlayerRef playerRefComponent,
+        @Nonnull DrunkComponent drunkComponent,
+        boolean isDrink
+    ) {
+        ComponentAccessor<EntityStore> accessor = context.accessor();
+        if (accessor.getComponent(ref, EffectControllerComponent.getComponentType()) == null) return;
 
-        if (drunkTier != null) {
-            if (!Utils.hasActiveEffect(effectComponent, drunkTier.effectName)) {
-                this.clearDrunkEffects(store, ref, effectComponent);
-                this.addNewDrunkEffect(store, ref, effectComponent, drunkTier.effectName);
-            }
-        } else {
-            // If no drunk, then clear effects
-            this.clearDrunkEffects(store, ref, effectComponent);
-        }
+        DrunkRules rules = context.snapshot().rules();
+        int appliedTier = drunkComponent.getAppliedTier();
 
-        if (playerRefComponent != null && isDrink) {
-            this.applyShakeEffect(playerRefComponent, drunkLevel);
+        // Started ahead of the machine on a tier change, so the event covers the effect swap
+        DrunkTransitionEvent jfrEvent = null;
+        if (rules.tiers().getTierIndex(drunkComponent.getLevel(machine.now())) != appliedTier) {
+            jfrEvent = new DrunkTransitionEvent();
+            jfrEvent.begin();
         }
-    }
 
-    @Nullable
-    @Override
-    public Query<EntityStore> getQuery() {
-        return Query.and(
-            DrunkComponent.getComponentType(),
-            Player.getComponentType(),
-            PlayerRef.getComponentType(),
-            Query.not(DeathComponent.getComponentType()),
-            Query.not(Invulnerable.getComponentType())
-        );
-    }
+        // Shake follows a drink only for players who can receive it
+        float drunkLevel = machine.update(context, ref, drunkComponent, rules, isDrink && playerRefComponent != null);
+        double now = machine.now();
 
-    private void applyShakeEffect(@Nonnull PlayerRef playerRef, float drunkLevel) {
-        CameraEffect cameraEffect = CameraEffect.getAssetMap().getAsset(CAMERA_SHAKE_EFFECT);
-        assert cameraEffect != null;
+        this.updateIntoxicated(context, ref, drunkLevel);
+        this.updateLeaderboard(accessor, ref, playerRefComponent, drunkComponent, now);
 
-        float intensity = MathUtil.lerp(
-            this.cameraDrunkEffectMin,
-            this.cameraDrunkEffectMax,
-            drunkLevel / DrunkComponent.MAX_DRUNK_LEVEL
-        );
+        int tierIndex = drunkComponent.getAppliedTier();
+        if (tierIndex == appliedTier) return;
 
-        playerRef.getPacketHandler().writeNoCache(cameraEffect.createCameraShakePacket(intensity));
+        BreweryTrace.record(accessor, ref, TraceRecord.TRANSITION, 0.0F, drunkLevel, tierIndex);
+
+        if (jfrEvent != null && jfrEvent.shouldCommit()) {
+            jfrEvent.entity = playerRefComponent != null ? playerRefComponent.getUsername() : null;
+            jfrEvent.effect = tierIndex == DrunkTierTable.NO_TIER ? null : rules.tiers().getEffectId(tierIndex);
+            jfrEvent.fromTier = appliedTier;
+            jfrEvent.toTier = tierIndex;
+            jfrEvent.drunkLevel = drunkLevel;
+            jfrEvent.commit();
+        }
     }
 
-    private void removeShakeEffect(@Nonnull PlayerRef playerRef) {
-        CameraEffect cameraEffect = CameraEffect.getAssetMap().getAsset(CAMERA_SHAKE_EFFECT);
-        assert cameraEffect != null;
+    private void updateIntoxicated(@Nonnull DrunkContext context, @Nonnull Ref<EntityStore> ref, float drunkLevel) {
+        boolean intoxicated = context.accessor().getComponent(ref, IntoxicatedComponent.getComponentType()) != null;
 
-        playerRef.getPacketHandler().writeNoCache(cameraEffect.createCameraShakePacket(0.0F));
+        if ((drunkLevel > 0.0F) != intoxicated) {
+            context.changes().setIntoxicated(ref, drunkLevel > 0.0F);
+        }
     }
 
-    private void clearDrunkEffects(
-        @Nonnull Store<EntityStore> store,
+    private void updateLeaderboard(
+        @Nonnull ComponentAccessor<EntityStore> accessor,
         @Nonnull Ref<EntityStore> ref,
-        @Nonnull EffectControllerComponent effectComponent
+        @Nullable PlayerRef playerRefComponent,
+        @Nonnull DrunkComponent drunkComponent,
+        double now
     ) {
-        ActiveEntityEffect[] entityEffects = effectComponent.getAllActiveEntityEffects();
-        if (entityEffects != null) {
-            Arrays.stream(entityEffects)
-                .filter(Utils::isEffectDrunkRelated)
-                .forEach(effect -> effectComponent.removeEffect(ref, effect.getEntityEffectIndex(), store));
+        DrunkLeaderboard<Ref<EntityStore>> leaderboard = accessor
+            .getResource(DrunkLeaderboardResource.getResourceType())
+            .getLeaderboard();
+
+        float drunkLevel = drunkComponent.getDrunkLevel(now);
+        if (drunkLevel <= 0.0F) {
+            leaderboard.remove(ref);
+            return;
         }
-    }
 
-    private void addNewDrunkEffect(
-        @Nonnull Store<EntityStore> store,
-        @Nonnull Ref<EntityStore> ref,
-        @Nonnull EffectControllerComponent effectComponent,
-        String effectName
-    ) {
-        EntityEffect soberEffect = EntityEffect.getAssetMap().getAsset(effectName);
-        if (soberEffect == null) return;
+        if (playerRefComponent == null) {
+            playerRefComponent = accessor.getComponent(ref, PlayerRef.getComponentType());
+            if (playerRefComponent == null) return;
+        }
+
+        // Entry decays at the rate of the state, 0 while it is paused
+        leaderboard.update(ref, playerRefComponent.getUsername(), drunkLevel, now, drunkComponent.getDecayRate());
+    }
 
-        effectComponent.addEffect(ref, soberEffect, store);
+    @Nonnull
+    private static DrunkMachine<DrunkContext, Ref<EntityStore>, DrunkComponent> getMachine(@Nonnull ComponentAccessor<EntityStore> accessor) {
+        return accessor.getResource(DrunkTimerResource.getResourceType()).getMachine();
     }
 }
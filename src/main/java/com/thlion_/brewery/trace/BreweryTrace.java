@@ -0,0 +1,36 @@
+package com.thlion_.brewery.trace;
+
+import com.hypixel.hytale.component.ComponentAccessor;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.thlion_.brewery.BreweryPlugin;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Records events of players into the brewery trace, does nothing while tracing is disabled.
+ */
+public class BreweryTrace {
+    /**
+     * @see TraceRecord
+     */
+    public static void record(
+        @Nonnull ComponentAccessor<EntityStore> accessor,
+        @Nonnull Ref<EntityStore> ref,
+        int type,
+        float value,
+        float level,
+        int extra
+    ) {
+        TraceRecorder recorder = BreweryPlugin.get().getTraceRecorder();
+        if (recorder == null) return;
+
+        // Players are resolved only while tracing, hashes keep records fixed size
+        PlayerRef playerRef = ref.isValid() ? accessor.getComponent(ref, PlayerRef.getComponentType()) : null;
+        int entity = playerRef != null ? playerRef.getUuid().hashCode() : 0;
+        int world = accessor.getExternalData().getWorld().getName().hashCode();
+
+        recorder.record(type, world, entity, value, level, extra);
+    }
+}